@@ -3,8 +3,9 @@ package com.hcs.weighbridge;
 import com.hcs.weighbridge.config.DatabaseConfig;
 import com.hcs.weighbridge.dao.ConfigDao;
 import com.hcs.weighbridge.dao.WeighDataDao;
-import com.hcs.weighbridge.model.SerialConfig;
-import com.hcs.weighbridge.serial.WeighReader;
+import com.hcs.weighbridge.serial.ScaleRegistry;
+import com.hcs.weighbridge.serial.SerialDispatcher;
+import com.hcs.weighbridge.service.TareRegistry;
 import com.hcs.weighbridge.service.WeighService;
 import com.hcs.weighbridge.ui.MainController;
 import com.hcs.weighbridge.ui.UiModel;
@@ -21,15 +22,15 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import org.apache.logging.log4j.Logger;
 
-import java.sql.Connection;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import javax.sql.DataSource;
 
 public class MainApp extends Application {
 
     private static final Logger logger = LogUtil.getLogger(DatabaseConfig.class);
-    private static WeighReader weighReader;
+    private static final ScaleRegistry scaleRegistry = new ScaleRegistry();
     private static MainApp instance;
     private static final ExecutorService executorService = Executors.newFixedThreadPool(4);
 
@@ -41,12 +42,8 @@ public class MainApp extends Application {
         return instance;
     }
 
-    public static WeighReader getWeighReader() {
-        return weighReader;
-    }
-
-    public static void setWeighReader(WeighReader reader) {
-        weighReader = reader;
+    public static ScaleRegistry getScaleRegistry() {
+        return scaleRegistry;
     }
 
     public static ExecutorService getExecutorService() {
@@ -61,16 +58,16 @@ public class MainApp extends Application {
             SecurityUtil.initialize();
             logger.info("Security configuration initialized");
             
-            // Initialize database connection
-            Connection connection = DatabaseConfig.getConnection();
-            logger.info("Database connection established");
+            // Initialize database connection pool
+            DataSource dataSource = DatabaseConfig.getDataSource();
+            logger.info("Database connection pool established");
             
             // Initialize configuration DAO
-            ConfigDao configDao = new ConfigDao(connection);
+            ConfigDao configDao = new ConfigDao(dataSource);
             
             // Initialize backup service
             com.hcs.weighbridge.service.BackupService backupService = 
-                new com.hcs.weighbridge.service.BackupService(connection, configDao);
+                new com.hcs.weighbridge.service.BackupService(dataSource, configDao);
             
             // Perform auto-restore if enabled
             backupService.autoRestoreIfEnabled();
@@ -129,29 +126,23 @@ public class MainApp extends Application {
             MainController controller = loader.getController();
 
             UiModel uiModel = new UiModel();
-            Connection connection = DatabaseConfig.getConnection();
-            WeighDataDao weighDataDao = new WeighDataDao(connection);
-            WeighService weighService = new WeighService(weighDataDao);
-            ConfigDao configDao = new ConfigDao(connection);
+            DataSource dataSource = DatabaseConfig.getDataSource();
+            WeighDataDao weighDataDao = new WeighDataDao(dataSource);
+            ConfigDao configDao = new ConfigDao(dataSource);
+            TareRegistry tareRegistry = new TareRegistry(weighDataDao, configDao.loadStoredTareConfig());
+            WeighService weighService = new WeighService(weighDataDao, tareRegistry);
+            executorService.submit(() -> {
+                try {
+                    tareRegistry.load();
+                } catch (Exception e) {
+                    logger.error("Failed to load tare history: {}", e.getMessage(), e);
+                }
+            });
             com.hcs.weighbridge.service.BackupService backupService = new com.hcs.weighbridge.service.BackupService(
-                    connection, configDao);
+                    dataSource, configDao);
 
             controller.init(uiModel, weighService, configDao, backupService, currentUser);
-            SerialConfig serialConfig = configDao.loadSerialConfig();
-
-            if (weighReader != null) {
-                weighReader.stop();
-            }
-
-            weighReader = new WeighReader(
-                    serialConfig,
-                    (weight, status) -> Platform.runLater(() -> controller.updateLiveWeight(weight, status)));
-
-            Thread serialThread = new Thread(
-                    weighReader::start,
-                    "WeighReader-Thread");
-            serialThread.setDaemon(true);
-            serialThread.start();
+            controller.startScales();
 
             stage.setTitle("WeighBridge System");
             stage.setScene(scene);
@@ -165,11 +156,10 @@ public class MainApp extends Application {
 
     @Override
     public void stop() {
-        if (weighReader != null) {
-            weighReader.stop();
-        }
+        scaleRegistry.closeAll();
+        SerialDispatcher.shutdown();
         executorService.shutdown();
-        DatabaseConfig.closeConnection();
+        DatabaseConfig.closePool();
         Platform.exit();
     }
 
@@ -3,6 +3,9 @@ package com.hcs.weighbridge.config;
 import com.fazecast.jSerialComm.SerialPort;
 import com.hcs.weighbridge.util.LogUtil;
 import com.hcs.weighbridge.util.SecurityUtil;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
@@ -11,15 +14,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import javax.sql.DataSource;
 
 public final class DatabaseConfig {
 
     private static final Logger logger = LogUtil.getLogger(DatabaseConfig.class);
-    private static Connection connection;
+    private static HikariDataSource dataSource;
     private static boolean initialized = false;
 
     private static String DB_HOST = "localhost";
@@ -30,9 +35,52 @@ public final class DatabaseConfig {
     private static String USE_SSL = "false";
     private static String USE_UNICODE = "true";
     private static String CHARACTER_ENCODING = "UTF-8";
+    private static int POOL_MAX_SIZE = 8;
+    private static int POOL_MIN_IDLE = 2;
+
+    /**
+     * Indexes added to {@code weigh_data} after its first release, as {name, columns}.
+     */
+    private static final String[][] WEIGH_DATA_ADDED_INDEXES = {
+            {"idx_lorry_hash_status", "lorry_hash, status"},
+            {"idx_status_weighed_in", "status, weighed_in_at, id"},
+            {"idx_status_weighed_out", "status, weighed_out_at, id"},
+    };
+
+    /**
+     * Position of the placeholder row stored for lorry numbers too short to have n-gram
+     * tokens, so the backfill knows they were processed. Its empty token never matches a
+     * search token.
+     */
+    public static final int NO_TOKENS_POS = 255;
+    public static final String NO_TOKENS_TOKEN = "";
 
     private static final String CONFIG_FILE_PATH = "dbconfig.properties";
 
+    /**
+     * Columns added to {@code weigh_data} after its first release, as {name, definition}.
+     * Missing ones are added on startup so existing databases upgrade in place.
+     */
+    private static final String[][] WEIGH_DATA_ADDED_COLUMNS = {
+            {"first_samples", "INT"},
+            {"first_min", "INT"},
+            {"first_max", "INT"},
+            {"first_stddev", "DECIMAL(10,2)"},
+            {"first_settle_ms", "INT"},
+            {"second_samples", "INT"},
+            {"second_min", "INT"},
+            {"second_max", "INT"},
+            {"second_stddev", "DECIMAL(10,2)"},
+            {"second_settle_ms", "INT"},
+            {"stored_tare", "TINYINT(1) NOT NULL DEFAULT 0"},
+            {"lorry_hash", "CHAR(64)"},
+            {"weighed_in_at", "DATETIME"},
+            {"weighed_out_at", "DATETIME"},
+            {"first_lane", "TINYINT"},
+            {"second_lane", "TINYINT"},
+            {"stored_tare_weighed_at", "DATETIME"},
+    };
+
     static {
         logger.trace("Static initialization block started for DatabaseConfig");
         loadConfiguration();
@@ -72,6 +120,8 @@ public final class DatabaseConfig {
             USE_SSL = props.getProperty("db.useSSL", USE_SSL);
             USE_UNICODE = props.getProperty("db.useUnicode", USE_UNICODE);
             CHARACTER_ENCODING = props.getProperty("db.characterEncoding", CHARACTER_ENCODING);
+            POOL_MAX_SIZE = Integer.parseInt(props.getProperty("db.pool.maxSize", String.valueOf(POOL_MAX_SIZE)));
+            POOL_MIN_IDLE = Integer.parseInt(props.getProperty("db.pool.minIdle", String.valueOf(POOL_MIN_IDLE)));
 
             logger.info("Configuration loaded successfully from file");
             logger.debug(
@@ -79,7 +129,7 @@ public final class DatabaseConfig {
                     DB_HOST, DB_PORT, DB_NAME, DB_USER, USE_SSL, USE_UNICODE, CHARACTER_ENCODING);
             System.out.println("Database configuration loaded successfully.");
 
-        } catch (IOException e) {
+        } catch (IOException | NumberFormatException e) {
             logger.error("Failed to load configuration file: {}", e.getMessage(), e);
             System.err.println("Error loading configuration file: " + e.getMessage());
             System.out.println("Using default database configuration.");
@@ -126,8 +176,9 @@ public final class DatabaseConfig {
             }
 
             logger.debug("Attempting to connect to database: {}", getDbUrl());
-            connection = DriverManager.getConnection(getDbUrl(), DB_USER, DB_PASSWORD);
-            logger.info("Connected to database '{}' at {}:{}", DB_NAME, DB_HOST, DB_PORT);
+            dataSource = createDataSource();
+            logger.info("Connected to database '{}' at {}:{} (pool of up to {} connections)",
+                    DB_NAME, DB_HOST, DB_PORT, POOL_MAX_SIZE);
 
             createTables();
             initialized = true;
@@ -146,6 +197,31 @@ public final class DatabaseConfig {
         }
     }
 
+    /**
+     * Creates the bounded pool every DAO borrows from. Connections are checked with the JDBC4
+     * {@code isValid} ping before use, idle ones above the minimum are evicted after five
+     * minutes, and all are replaced well within MySQL's default {@code wait_timeout}.
+     */
+    private static HikariDataSource createDataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("weighbridge-db");
+        config.setDriverClassName("com.mysql.jdbc.Driver");
+        config.setJdbcUrl(getDbUrl());
+        config.setUsername(DB_USER);
+        config.setPassword(DB_PASSWORD);
+        config.setMaximumPoolSize(POOL_MAX_SIZE);
+        config.setMinimumIdle(Math.min(POOL_MIN_IDLE, POOL_MAX_SIZE));
+        config.setConnectionTimeout(10_000);
+        config.setValidationTimeout(3_000);
+        config.setIdleTimeout(300_000);
+        config.setMaxLifetime(1_800_000);
+        config.setLeakDetectionThreshold(60_000);
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        return new HikariDataSource(config);
+    }
+
     private static void createTables() throws SQLException {
         logger.debug("Creating/checking database tables...");
 
@@ -170,6 +246,14 @@ public final class DatabaseConfig {
                 "INDEX idx_created_at (created_at)" +
                 ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
 
+        String createLorryTokenTable = "CREATE TABLE IF NOT EXISTS weigh_data_lorry_token (" +
+                "record_id INT NOT NULL," +
+                "pos TINYINT UNSIGNED NOT NULL," +
+                "token CHAR(16) NOT NULL," +
+                "PRIMARY KEY (record_id, pos)," +
+                "INDEX idx_token (token, record_id, pos)" +
+                ") ENGINE=InnoDB DEFAULT CHARSET=ascii";
+
         String createAppConfigTable = "CREATE TABLE IF NOT EXISTS app_config (" +
                 "config_key VARCHAR(50) PRIMARY KEY," +
                 "config_value VARCHAR(100) NOT NULL," +
@@ -195,12 +279,21 @@ public final class DatabaseConfig {
                 "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
                 ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
 
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
             logger.debug("Creating 'weigh_data' table if not exists");
             stmt.executeUpdate(createWeighDataTable);
+            addMissingColumns(stmt, "weigh_data", WEIGH_DATA_ADDED_COLUMNS);
+            addMissingIndexes(stmt, "weigh_data", WEIGH_DATA_ADDED_INDEXES);
             logger.info("Table 'weigh_data' checked/created successfully");
             System.out.println("Table 'weigh_data' checked/created successfully.");
 
+            logger.debug("Creating 'weigh_data_lorry_token' table if not exists");
+            stmt.executeUpdate(createLorryTokenTable);
+            logger.info("Table 'weigh_data_lorry_token' checked/created successfully");
+
+            rebuildDerivedData();
+
             logger.debug("Creating 'app_config' table if not exists");
             stmt.executeUpdate(createAppConfigTable);
             logger.info("Table 'app_config' checked/created successfully");
@@ -223,6 +316,156 @@ public final class DatabaseConfig {
         }
     }
 
+    private static void addMissingColumns(Statement stmt, String table, String[][] columns) throws SQLException {
+        for (String[] column : columns) {
+            String sql = String.format(
+                    "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '%s' AND COLUMN_NAME = '%s'",
+                    table, column[0]);
+            boolean exists;
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                exists = rs.next() && rs.getInt(1) > 0;
+            }
+            if (!exists) {
+                stmt.executeUpdate(String.format("ALTER TABLE %s ADD COLUMN %s %s", table, column[0], column[1]));
+                logger.info("Added column '{}' to table '{}'", column[0], table);
+            }
+        }
+    }
+
+    private static void addMissingIndexes(Statement stmt, String table, String[][] indexes) throws SQLException {
+        for (String[] index : indexes) {
+            String sql = String.format(
+                    "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '%s' AND INDEX_NAME = '%s'",
+                    table, index[0]);
+            boolean exists;
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                exists = rs.next() && rs.getInt(1) > 0;
+            }
+            if (!exists) {
+                stmt.executeUpdate(String.format("ALTER TABLE %s ADD INDEX %s (%s)", table, index[0], index[1]));
+                logger.info("Added index '{}' to table '{}'", index[0], table);
+            }
+        }
+    }
+
+    /**
+     * Fills the typed timestamps, lorry blind index and n-gram tokens of records that lack
+     * them, such as rows written before those columns existed or restored from a backup.
+     */
+    public static synchronized void rebuildDerivedData() throws SQLException {
+        backfillWeighTimes();
+        backfillLorryHashes();
+        backfillLorryTokens();
+    }
+
+    /**
+     * Derives {@code weighed_in_at} and {@code weighed_out_at} from the legacy date and time
+     * text columns. Malformed dates are left empty; a malformed time counts as midnight.
+     */
+    private static void backfillWeighTimes() throws SQLException {
+        String[][] columns = {
+                {"weighed_in_at", "date_in", "time_in"},
+                {"weighed_out_at", "date_out", "time_out"},
+        };
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            for (String[] column : columns) {
+                int updated = stmt.executeUpdate(String.format(
+                        "UPDATE weigh_data SET %1$s = STR_TO_DATE(CONCAT(%2$s, ' ', " +
+                                "CASE WHEN %3$s REGEXP '^[0-9]{1,2}:[0-9]{2}$' THEN %3$s ELSE '00:00' END), " +
+                                "'%%Y-%%m-%%d %%H:%%i') " +
+                                "WHERE %1$s IS NULL AND %2$s REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}$'",
+                        column[0], column[1], column[2]));
+                if (updated > 0) {
+                    logger.info("Backfilled {} for {} records", column[0], updated);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills {@code lorry_hash} for records written before the column existed. Rows whose lorry
+     * number cannot be decrypted are logged and left empty.
+     */
+    private static void backfillLorryHashes() throws SQLException {
+        String select = "SELECT id, lorry_no FROM weigh_data WHERE lorry_hash IS NULL";
+        String update = "UPDATE weigh_data SET lorry_hash = ? WHERE id = ?";
+
+        int updated = 0;
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(select);
+             PreparedStatement ps = connection.prepareStatement(update)) {
+            while (rs.next()) {
+                long id = rs.getLong("id");
+                try {
+                    ps.setString(1, SecurityUtil.blindIndex(SecurityUtil.decrypt(rs.getString("lorry_no"))));
+                } catch (Exception e) {
+                    logger.warn("Could not index lorry number of record {}: {}", id, e.getMessage());
+                    continue;
+                }
+                ps.setLong(2, id);
+                ps.addBatch();
+                if (++updated % 500 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        if (updated > 0) {
+            logger.info("Backfilled lorry_hash for {} records", updated);
+        }
+    }
+
+    /**
+     * Fills {@code weigh_data_lorry_token} for records that have no tokens yet. Lorry numbers
+     * shorter than one n-gram get the {@link #NO_TOKENS_POS} placeholder instead, so they are
+     * not decrypted again on every startup.
+     */
+    private static void backfillLorryTokens() throws SQLException {
+        String select = "SELECT w.id, w.lorry_no FROM weigh_data w " +
+                "WHERE NOT EXISTS (SELECT 1 FROM weigh_data_lorry_token t WHERE t.record_id = w.id)";
+        String insert = "INSERT IGNORE INTO weigh_data_lorry_token (record_id, pos, token) VALUES (?, ?, ?)";
+
+        int indexed = 0;
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(select);
+             PreparedStatement ps = connection.prepareStatement(insert)) {
+            while (rs.next()) {
+                long id = rs.getLong("id");
+                String[] tokens;
+                try {
+                    tokens = SecurityUtil.ngramTokens(SecurityUtil.decrypt(rs.getString("lorry_no")));
+                } catch (Exception e) {
+                    logger.warn("Could not tokenize lorry number of record {}: {}", id, e.getMessage());
+                    continue;
+                }
+                if (tokens.length == 0) {
+                    ps.setLong(1, id);
+                    ps.setInt(2, NO_TOKENS_POS);
+                    ps.setString(3, NO_TOKENS_TOKEN);
+                    ps.addBatch();
+                }
+                for (int pos = 0; pos < tokens.length; pos++) {
+                    ps.setLong(1, id);
+                    ps.setInt(2, pos);
+                    ps.setString(3, tokens[pos]);
+                    ps.addBatch();
+                }
+                if (++indexed % 500 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        if (indexed > 0) {
+            logger.info("Built lorry search tokens for {} records", indexed);
+        }
+    }
+
     private static void insertDefaultConfigurations() {
         logger.debug("Inserting default configurations...");
         String[] defaultConfigs = {
@@ -233,6 +476,26 @@ public final class DatabaseConfig {
                         + SerialPort.ONE_STOP_BIT + "')",
                 "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('parity', '" + SerialPort.EVEN_PARITY
                         + "')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('ingest_mode', 'BLOCKING')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('scale_protocol', 'STANDARD')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('scale_count', '1')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('stability_software_enabled', 'false')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('stability_window_ms', '2000')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('stability_tolerance_kg', '20')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('stability_max_slope', '10')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('frame_journal_enabled', 'true')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('frame_journal_size_mb', '16')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('filter_mode', 'NONE')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('filter_median_window', '5')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('filter_ema_alpha', '0.3')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('stale_after_ms', '3000')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('auto_capture_enabled', 'false')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('auto_capture_min_weight_kg', '1000')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('auto_capture_hold_ms', '3000')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('stored_tare_enabled', 'false')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('stored_tare_max_age_days', '30')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('stored_tare_min_samples', '3')",
+                "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('stored_tare_tolerance_kg', '100')",
                 "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('ui_scale_factor', '2.0')",
                 "INSERT IGNORE INTO app_config (config_key, config_value) VALUES ('receipt_counter', '1')"
         };
@@ -244,7 +507,8 @@ public final class DatabaseConfig {
         String insertDefaultCompany = "INSERT IGNORE INTO company_info (id, company_name, company_address, contact_number1, contact_number2) " +
                 "VALUES (1, 'YOUR COMPANY NAME', 'Your Company Address', 'Contact number 1', 'Contact number 2')";
 
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
             int successCount = 0;
             for (String sql : defaultConfigs) {
                 try {
@@ -289,42 +553,41 @@ public final class DatabaseConfig {
         }
     }
 
-    public static synchronized Connection getConnection() {
-        logger.debug("getConnection() called");
+    /**
+     * Returns the connection pool, recreating it if it was closed.
+     */
+    public static synchronized DataSource getDataSource() {
+        if (dataSource == null || dataSource.isClosed()) {
+            logger.warn("Database pool is not available. Reinitializing...");
+            initialized = false;
+            initializeDatabaseAndTables();
+        }
+        return dataSource;
+    }
+
+    /**
+     * Borrows a connection from the pool. Callers must close it, which returns it to the pool.
+     */
+    public static Connection getConnection() {
+        logger.trace("getConnection() called");
         try {
-            if (connection == null || connection.isClosed()) {
-                logger.warn("Database connection is null or closed. Reinitializing...");
-                initialized = false;
-                initializeDatabaseAndTables();
-            } else {
-                logger.trace("Returning existing database connection");
-            }
-            return connection;
+            return getDataSource().getConnection();
         } catch (SQLException e) {
             logger.error("Failed to get database connection: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to connect to database", e);
         }
     }
 
-    public static synchronized void closeConnection() {
-        logger.debug("closeConnection() called");
-        if (connection != null) {
-            try {
-                if (!connection.isClosed()) {
-                    connection.close();
-                    logger.info("Database connection closed successfully");
-                    System.out.println("Database connection closed.");
-                } else {
-                    logger.debug("Database connection was already closed");
-                }
-                initialized = false;
-            } catch (SQLException e) {
-                logger.error("Error closing database connection: {}", e.getMessage(), e);
-                System.err.println("Error closing database connection: " + e.getMessage());
-            }
+    public static synchronized void closePool() {
+        logger.debug("closePool() called");
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+            logger.info("Database connection pool closed successfully");
+            System.out.println("Database connection pool closed.");
         } else {
-            logger.debug("No database connection to close");
+            logger.debug("No database connection pool to close");
         }
+        initialized = false;
     }
 
     public static String getDbHost() {
@@ -355,28 +618,28 @@ public final class DatabaseConfig {
     public static synchronized void reloadConfiguration() {
         logger.info("Reloading database configuration...");
         loadConfiguration();
-        closeConnection();
+        closePool();
         initialized = false;
         logger.info("Configuration reloaded. New connection will use updated settings");
         System.out.println("Configuration reloaded. New connection will use updated settings.");
     }
 
     public static void logConnectionStatus() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                logger.info("Database connection is ACTIVE - Database: {}, Host: {}, Port: {}",
-                        DB_NAME, DB_HOST, DB_PORT);
-            } else {
-                logger.warn("Database connection is INACTIVE or CLOSED");
-            }
-        } catch (SQLException e) {
-            logger.error("Error checking connection status: {}", e.getMessage(), e);
+        HikariDataSource pool = dataSource;
+        if (pool != null && !pool.isClosed()) {
+            HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+            logger.info("Database pool is ACTIVE - Database: {}, Host: {}, Port: {}, active: {}, idle: {}, waiting: {}",
+                    DB_NAME, DB_HOST, DB_PORT, stats.getActiveConnections(), stats.getIdleConnections(),
+                    stats.getThreadsAwaitingConnection());
+        } else {
+            logger.warn("Database pool is INACTIVE or CLOSED");
         }
     }
 
     public static boolean isTableEmpty(String tableName) {
         String query = "SELECT COUNT(*) FROM " + tableName;
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = getDataSource().getConnection();
+             Statement stmt = connection.createStatement();
                 ResultSet rs = stmt.executeQuery(query)) {
             if (rs.next()) {
                 return rs.getInt(1) == 0;
@@ -403,7 +666,8 @@ public final class DatabaseConfig {
         }
 
         String[] statements = script.toString().split(";");
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = getDataSource().getConnection();
+             Statement stmt = connection.createStatement()) {
             int count = 0;
             for (String sql : statements) {
                 String trimmed = sql.trim();
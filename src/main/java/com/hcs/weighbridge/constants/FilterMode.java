@@ -0,0 +1,5 @@
+package com.hcs.weighbridge.constants;
+
+public enum FilterMode {
+    NONE,MEDIAN,EMA,MEDIAN_EMA
+}
@@ -0,0 +1,5 @@
+package com.hcs.weighbridge.constants;
+
+public enum IngestMode {
+    BLOCKING,EVENT
+}
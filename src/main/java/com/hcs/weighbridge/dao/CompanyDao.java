@@ -7,19 +7,21 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import javax.sql.DataSource;
 
 public class CompanyDao {
-    private final Connection connection;
+    private final DataSource dataSource;
 
-    public CompanyDao(Connection connection) {
-        this.connection = connection;
+    public CompanyDao(DataSource dataSource) {
+        this.dataSource = dataSource;
     }
 
     public CompanyInfo getCompanyInfo() {
         CompanyInfo info = new CompanyInfo();
         String sql = "SELECT * FROM company_info LIMIT 1";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
             if (rs.next()) {
@@ -49,7 +51,8 @@ public class CompanyDao {
                      "contact_number1 = VALUES(contact_number1), " +
                      "contact_number2 = VALUES(contact_number2)";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, info.getCompanyName());
             ps.setString(2, info.getCompanyAddress());
             ps.setString(3, info.getContactNumber1());
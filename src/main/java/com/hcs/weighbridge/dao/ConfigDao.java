@@ -1,49 +1,76 @@
 package com.hcs.weighbridge.dao;
 
+import com.hcs.weighbridge.constants.FilterMode;
+import com.hcs.weighbridge.constants.IngestMode;
+import com.hcs.weighbridge.model.AutoCaptureConfig;
+import com.hcs.weighbridge.model.FilterConfig;
 import com.hcs.weighbridge.model.SerialConfig;
+import com.hcs.weighbridge.model.StabilityConfig;
+import com.hcs.weighbridge.model.StoredTareConfig;
 import com.hcs.weighbridge.exceptions.AppException;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
 
 public class ConfigDao {
 
-    private final Connection connection;
+    private final DataSource dataSource;
 
-    public ConfigDao(Connection connection) {
-        this.connection = connection;
+    public ConfigDao(DataSource dataSource) {
+        this.dataSource = dataSource;
     }
 
     public SerialConfig loadSerialConfig() {
+        return loadSerialConfig(0);
+    }
+
+    /**
+     * Loads the serial settings of scale lane {@code lane} (0 based). Lanes after the first
+     * store their keys with a {@code _<n>} suffix, e.g. {@code com_port_2}, and inherit any
+     * line setting they do not define from the first lane, except the port.
+     */
+    public SerialConfig loadSerialConfig(int lane) {
         SerialConfig cfg = new SerialConfig();
+        Map<String, String> values = new HashMap<>();
 
-        try (PreparedStatement ps = connection.prepareStatement(
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
                 "SELECT config_key, config_value FROM app_config")) {
 
             ResultSet rs = ps.executeQuery();
             while (rs.next()) {
-                String k = rs.getString("config_key");
-                String v = rs.getString("config_value");
-
-                switch (k) {
-                    case "com_port":
-                        cfg.setPortName(v);
-                        break;
-                    case "baud_rate":
-                        cfg.setBaudRate(Integer.parseInt(v));
-                        break;
-                    case "data_bits":
-                        cfg.setDataBits(Integer.parseInt(v));
-                        break;
-                    case "stop_bits":
-                        cfg.setStopBits(Integer.parseInt(v));
-                        break;
-                    case "parity":
-                        cfg.setParity(Integer.parseInt(v));
-                        break;
-                }
+                values.put(rs.getString("config_key"), rs.getString("config_value"));
+            }
+
+            String suffix = laneSuffix(lane);
+            String port = values.get("com_port" + suffix);
+            if (port != null) {
+                cfg.setPortName(port);
+            }
+
+            String v;
+            if ((v = laneValue(values, "baud_rate", suffix)) != null) {
+                cfg.setBaudRate(Integer.parseInt(v));
+            }
+            if ((v = laneValue(values, "data_bits", suffix)) != null) {
+                cfg.setDataBits(Integer.parseInt(v));
+            }
+            if ((v = laneValue(values, "stop_bits", suffix)) != null) {
+                cfg.setStopBits(Integer.parseInt(v));
+            }
+            if ((v = laneValue(values, "parity", suffix)) != null) {
+                cfg.setParity(Integer.parseInt(v));
+            }
+            if ((v = laneValue(values, "ingest_mode", suffix)) != null) {
+                cfg.setIngestMode(IngestMode.valueOf(v));
+            }
+            if ((v = laneValue(values, "scale_protocol", suffix)) != null) {
+                cfg.setProtocolName(v);
             }
         } catch (Exception e) {
             throw new AppException("Failed to load serial configuration", e);
@@ -53,15 +80,123 @@ public class ConfigDao {
     }
 
     public void saveSerialConfig(SerialConfig cfg) {
-        save("com_port", cfg.getPortName());
-        save("baud_rate", String.valueOf(cfg.getBaudRate()));
-        save("data_bits", String.valueOf(cfg.getDataBits()));
-        save("stop_bits", String.valueOf(cfg.getStopBits()));
-        save("parity", String.valueOf(cfg.getParity()));
+        saveSerialConfig(0, cfg);
+    }
+
+    public void saveSerialConfig(int lane, SerialConfig cfg) {
+        String suffix = laneSuffix(lane);
+        save("com_port" + suffix, cfg.getPortName());
+        save("baud_rate" + suffix, String.valueOf(cfg.getBaudRate()));
+        save("data_bits" + suffix, String.valueOf(cfg.getDataBits()));
+        save("stop_bits" + suffix, String.valueOf(cfg.getStopBits()));
+        save("parity" + suffix, String.valueOf(cfg.getParity()));
+        save("ingest_mode" + suffix, cfg.getIngestMode().name());
+        save("scale_protocol" + suffix, cfg.getProtocolName());
+    }
+
+    /**
+     * Returns how many scale lanes this terminal serves.
+     */
+    public int getScaleCount() {
+        try {
+            return Math.max(1, Integer.parseInt(getValue("scale_count", "1")));
+        } catch (NumberFormatException e) {
+            throw new AppException("Invalid scale count", e);
+        }
+    }
+
+    public void setScaleCount(int count) {
+        save("scale_count", String.valueOf(count));
+    }
+
+    private static String laneSuffix(int lane) {
+        return lane == 0 ? "" : "_" + (lane + 1);
+    }
+
+    private static String laneValue(Map<String, String> values, String key, String suffix) {
+        String value = values.get(key + suffix);
+        return value != null ? value : values.get(key);
+    }
+
+    public StabilityConfig loadStabilityConfig() {
+        StabilityConfig cfg = new StabilityConfig();
+        try {
+            cfg.setSoftwareEnabled(Boolean.parseBoolean(getValue("stability_software_enabled", "false")));
+            cfg.setWindowMs(Long.parseLong(getValue("stability_window_ms", String.valueOf(cfg.getWindowMs()))));
+            cfg.setToleranceKg(Integer.parseInt(getValue("stability_tolerance_kg", String.valueOf(cfg.getToleranceKg()))));
+            cfg.setMaxSlopeKgPerSec(Double.parseDouble(
+                    getValue("stability_max_slope", String.valueOf(cfg.getMaxSlopeKgPerSec()))));
+        } catch (NumberFormatException e) {
+            throw new AppException("Invalid stability configuration", e);
+        }
+        return cfg;
+    }
+
+    public FilterConfig loadFilterConfig() {
+        FilterConfig cfg = new FilterConfig();
+        try {
+            cfg.setMode(FilterMode.valueOf(getValue("filter_mode", cfg.getMode().name()).trim().toUpperCase()));
+            cfg.setMedianWindow(Integer.parseInt(
+                    getValue("filter_median_window", String.valueOf(cfg.getMedianWindow()))));
+            cfg.setEmaAlpha(Double.parseDouble(getValue("filter_ema_alpha", String.valueOf(cfg.getEmaAlpha()))));
+        } catch (IllegalArgumentException e) {
+            throw new AppException("Invalid weight filter configuration", e);
+        }
+        return cfg;
+    }
+
+    public StoredTareConfig loadStoredTareConfig() {
+        StoredTareConfig cfg = new StoredTareConfig();
+        try {
+            cfg.setEnabled(Boolean.parseBoolean(getValue("stored_tare_enabled", "false")));
+            cfg.setMaxAgeDays(Integer.parseInt(
+                    getValue("stored_tare_max_age_days", String.valueOf(cfg.getMaxAgeDays()))));
+            cfg.setMinSamples(Integer.parseInt(
+                    getValue("stored_tare_min_samples", String.valueOf(cfg.getMinSamples()))));
+            cfg.setToleranceKg(Integer.parseInt(
+                    getValue("stored_tare_tolerance_kg", String.valueOf(cfg.getToleranceKg()))));
+        } catch (NumberFormatException e) {
+            throw new AppException("Invalid stored tare configuration", e);
+        }
+        return cfg;
+    }
+
+    public AutoCaptureConfig loadAutoCaptureConfig() {
+        AutoCaptureConfig cfg = new AutoCaptureConfig();
+        try {
+            cfg.setEnabled(Boolean.parseBoolean(getValue("auto_capture_enabled", "false")));
+            cfg.setMinWeightKg(Integer.parseInt(
+                    getValue("auto_capture_min_weight_kg", String.valueOf(cfg.getMinWeightKg()))));
+            cfg.setHoldMs(Long.parseLong(getValue("auto_capture_hold_ms", String.valueOf(cfg.getHoldMs()))));
+        } catch (NumberFormatException e) {
+            throw new AppException("Invalid auto-capture configuration", e);
+        }
+        return cfg;
+    }
+
+    public long getStaleAfterMs() {
+        try {
+            return Long.parseLong(getValue("stale_after_ms", "3000"));
+        } catch (NumberFormatException e) {
+            throw new AppException("Invalid stale weight timeout", e);
+        }
+    }
+
+    public boolean isFrameJournalEnabled() {
+        return Boolean.parseBoolean(getValue("frame_journal_enabled", "true"));
+    }
+
+    public int getFrameJournalSizeMb() {
+        try {
+            return Integer.parseInt(getValue("frame_journal_size_mb", "16"));
+        } catch (NumberFormatException e) {
+            throw new AppException("Invalid frame journal size", e);
+        }
     }
 
     public double getUiScaleFactor() {
-        try (PreparedStatement ps = connection.prepareStatement(
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
                 "SELECT config_value FROM app_config WHERE config_key = ?")) {
             ps.setString(1, "ui_scale_factor");
             ResultSet rs = ps.executeQuery();
@@ -106,7 +241,8 @@ public class ConfigDao {
     }
 
     private String getValue(String key, String defaultValue) {
-        try (PreparedStatement ps = connection.prepareStatement(
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
                 "SELECT config_value FROM app_config WHERE config_key = ?")) {
             ps.setString(1, key);
             ResultSet rs = ps.executeQuery();
@@ -121,7 +257,8 @@ public class ConfigDao {
     }
 
     private void save(String key, String value) {
-        try (PreparedStatement ps = connection.prepareStatement(
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
                 "REPLACE INTO app_config (config_key, config_value) VALUES (?, ?)")) {
 
             ps.setString(1, key);
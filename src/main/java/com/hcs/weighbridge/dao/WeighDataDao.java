@@ -1,34 +1,56 @@
 package com.hcs.weighbridge.dao;
 
+import com.hcs.weighbridge.config.DatabaseConfig;
 import com.hcs.weighbridge.constants.RecordStatus;
+import com.hcs.weighbridge.model.CaptureStats;
 import com.hcs.weighbridge.model.Record;
 import com.hcs.weighbridge.exceptions.AppException;
 import com.hcs.weighbridge.util.SecurityUtil;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import javax.sql.DataSource;
 
 public class WeighDataDao {
 
-    private final Connection connection;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
 
-    public WeighDataDao(Connection connection) {
-        this.connection = connection;
+    private final DataSource dataSource;
+
+    public WeighDataDao(DataSource dataSource) {
+        this.dataSource = dataSource;
     }
 
     public void createTransaction(Record record) {
-        String sql = "INSERT INTO weigh_data (lorry_no, customer_name, product_name, driver_name) VALUES (?, ?, ?, ?)";
-
-        try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, SecurityUtil.encrypt(record.getLorryNumber()));
-            ps.setString(2, SecurityUtil.encrypt(record.getCustomerName()));
-            ps.setString(3, SecurityUtil.encrypt(record.getProductName()));
-            ps.setString(4, SecurityUtil.encrypt(record.getDriverName()));
-            ps.executeUpdate();
-
-            ResultSet rs = ps.getGeneratedKeys();
-            if (rs.next()) {
-                long id = rs.getLong(1);
-                record.setId(id);
+        String sql = "INSERT INTO weigh_data (lorry_no, lorry_hash, customer_name, product_name, driver_name) " +
+                "VALUES (?, ?, ?, ?, ?)";
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, SecurityUtil.encrypt(record.getLorryNumber()));
+                ps.setString(2, SecurityUtil.blindIndex(record.getLorryNumber()));
+                ps.setString(3, SecurityUtil.encrypt(record.getCustomerName()));
+                ps.setString(4, SecurityUtil.encrypt(record.getProductName()));
+                ps.setString(5, SecurityUtil.encrypt(record.getDriverName()));
+                ps.executeUpdate();
+
+                ResultSet rs = ps.getGeneratedKeys();
+                if (rs.next()) {
+                    long id = rs.getLong(1);
+                    record.setId(id);
+                    insertLorryTokens(connection, id, record.getLorryNumber());
+                }
+                connection.commit();
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
             }
 
         } catch (SQLException e) {
@@ -39,14 +61,36 @@ public class WeighDataDao {
     }
 
     public void saveFirstWeight(long recordId, int weight, String date, String time) {
-        String sql = "UPDATE weigh_data SET first_weight=?, date_in=?, time_in=?, status=? WHERE id=?";
+        saveFirstWeight(recordId, weight, date, time, null);
+    }
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+    /**
+     * Saves the first weight together with the statistics of the samples behind it;
+     * {@code stats} may be {@code null} when none were recorded.
+     */
+    public void saveFirstWeight(long recordId, int weight, String date, String time, CaptureStats stats) {
+        saveFirstWeight(recordId, weight, date, time, stats, 0);
+    }
+
+    /**
+     * As above, also recording the number of the scale that weighed it; {@code lane} 0 stores
+     * NULL.
+     */
+    public void saveFirstWeight(long recordId, int weight, String date, String time, CaptureStats stats, int lane) {
+        String sql = "UPDATE weigh_data SET first_weight=?, date_in=?, time_in=?, weighed_in_at=?, status=?, " +
+                "first_samples=?, first_min=?, first_max=?, first_stddev=?, first_settle_ms=?, first_lane=? " +
+                "WHERE id=?";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, weight);
             ps.setString(2, date);
             ps.setString(3, time);
-            ps.setString(4, RecordStatus.PENDING.toString());
-            ps.setLong(5, recordId);
+            ps.setTimestamp(4, toTimestamp(date, time));
+            ps.setString(5, RecordStatus.PENDING.toString());
+            setCaptureStats(ps, 6, stats);
+            setLane(ps, 11, lane);
+            ps.setLong(12, recordId);
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new AppException("Failed to save first weight", e);
@@ -54,30 +98,136 @@ public class WeighDataDao {
     }
 
     public void saveSecondWeightAndComplete(long recordId, int secondWeight, String dateOut, String timeOut) {
+        saveSecondWeightAndComplete(recordId, secondWeight, dateOut, timeOut, null);
+    }
+
+    public void saveSecondWeightAndComplete(long recordId, int secondWeight, String dateOut, String timeOut,
+                                            CaptureStats stats) {
+        saveSecondWeightAndComplete(recordId, secondWeight, dateOut, timeOut, stats, 0);
+    }
+
+    public void saveSecondWeightAndComplete(long recordId, int secondWeight, String dateOut, String timeOut,
+                                            CaptureStats stats, int lane) {
         String sql = "UPDATE weigh_data " +
                 "SET second_weight=?, " +
                 "date_out=?, " +
                 "time_out=?, " +
+                "weighed_out_at=?, " +
                 "net_weight=ABS(second_weight - first_weight), " +
-                "status=? " +
+                "status=?, " +
+                "second_samples=?, second_min=?, second_max=?, second_stddev=?, second_settle_ms=?, " +
+                "second_lane=? " +
                 "WHERE id=? AND first_weight IS NOT NULL";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, secondWeight);
             ps.setString(2, dateOut);
             ps.setString(3, timeOut);
-            ps.setString(4, RecordStatus.COMPLETED.toString());
-            ps.setLong(5, recordId);
+            ps.setTimestamp(4, toTimestamp(dateOut, timeOut));
+            ps.setString(5, RecordStatus.COMPLETED.toString());
+            setCaptureStats(ps, 6, stats);
+            setLane(ps, 11, lane);
+            ps.setLong(12, recordId);
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new AppException("Failed to complete transaction", e);
         }
     }
 
+    /**
+     * Inserts a completed single-pass weighing in one transaction: the record's first weight
+     * is the stored tare measured at {@code tareWeighedAt}, its second the measured gross, and
+     * its times in and out are both when it crossed the scale. Assigns the new id to
+     * {@code record}.
+     */
+    public void createStoredTareTransaction(Record record, LocalDateTime tareWeighedAt, CaptureStats stats, int lane) {
+        String sql = "INSERT INTO weigh_data (lorry_no, lorry_hash, customer_name, product_name, driver_name, " +
+                "first_weight, second_weight, net_weight, date_in, time_in, date_out, time_out, " +
+                "weighed_in_at, weighed_out_at, status, stored_tare, stored_tare_weighed_at, " +
+                "second_samples, second_min, second_max, second_stddev, second_settle_ms, second_lane) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, SecurityUtil.encrypt(record.getLorryNumber()));
+                ps.setString(2, SecurityUtil.blindIndex(record.getLorryNumber()));
+                ps.setString(3, SecurityUtil.encrypt(record.getCustomerName()));
+                ps.setString(4, SecurityUtil.encrypt(record.getProductName()));
+                ps.setString(5, SecurityUtil.encrypt(record.getDriverName()));
+                ps.setInt(6, record.getFirstWeight());
+                ps.setInt(7, record.getSecondWeight());
+                ps.setInt(8, record.getNetWeight());
+                ps.setString(9, record.getDateIn());
+                ps.setString(10, record.getTimeIn());
+                ps.setString(11, record.getDateOut());
+                ps.setString(12, record.getTimeOut());
+                ps.setTimestamp(13, toTimestamp(record.getDateIn(), record.getTimeIn()));
+                ps.setTimestamp(14, toTimestamp(record.getDateOut(), record.getTimeOut()));
+                ps.setString(15, RecordStatus.COMPLETED.toString());
+                ps.setTimestamp(16, tareWeighedAt != null ? Timestamp.valueOf(tareWeighedAt) : null);
+                setCaptureStats(ps, 17, stats);
+                setLane(ps, 22, lane);
+                ps.executeUpdate();
+
+                ResultSet rs = ps.getGeneratedKeys();
+                if (rs.next()) {
+                    long id = rs.getLong(1);
+                    record.setId(id);
+                    insertLorryTokens(connection, id, record.getLorryNumber());
+                }
+                connection.commit();
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            throw new AppException("Failed to save stored tare transaction", e);
+        } catch (Exception e) {
+            throw new AppException("Critical error saving stored tare transaction", e);
+        }
+    }
+
+    /**
+     * Returns the latest {@code limit} completed two-pass weighings, newest first, with only
+     * the fields the tare registry needs.
+     */
+    public ArrayList<Record> getCompletedWeighingsForTare(int limit) {
+        String sql = "SELECT id, lorry_no, first_weight, second_weight, " +
+                "date_in, time_in, weighed_in_at, date_out, time_out, weighed_out_at FROM weigh_data " +
+                "WHERE status = ? AND stored_tare = 0 ORDER BY id DESC LIMIT ?";
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, RecordStatus.COMPLETED.toString());
+            ps.setInt(2, limit);
+
+            ArrayList<Record> records = new ArrayList<>();
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                Record record = new Record(SecurityUtil.decrypt(rs.getString("lorry_no")));
+                record.setId(rs.getLong("id"));
+                record.setFirstWeight(rs.getInt("first_weight"));
+                record.setSecondWeight(rs.getInt("second_weight"));
+                setWeighTimes(record, rs);
+                records.add(record);
+            }
+            return records;
+
+        } catch (SQLException e) {
+            throw new AppException("Failed to load tare history", e);
+        } catch (Exception e) {
+            throw new AppException("Unexpected error loading tare history", e);
+        }
+    }
+
     public ArrayList<Record> getAllRecordsFromStatus(RecordStatus status) {
         String sql = "SELECT * FROM weigh_data WHERE status = ? ORDER BY id DESC";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, status.toString());
 
             ArrayList<Record> records = new ArrayList<>();
@@ -98,7 +248,8 @@ public class WeighDataDao {
     public ArrayList<Record> getRecentCompletedRecords(int limit) {
         String sql = "SELECT * FROM weigh_data WHERE status = ? ORDER BY id DESC LIMIT ?";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, RecordStatus.COMPLETED.toString());
             ps.setInt(2, limit);
 
@@ -117,13 +268,18 @@ public class WeighDataDao {
         }
     }
 
-    public ArrayList<Record> getCompletedRecordsWithPagination(int offset, int limit) {
-        String sql = "SELECT * FROM weigh_data WHERE status = ? ORDER BY id DESC LIMIT ? OFFSET ?";
+    /**
+     * Returns up to {@code limit} completed records with an id below {@code beforeId}, newest
+     * first. Seeking on the primary key keeps every page as cheap as the first.
+     */
+    public ArrayList<Record> getCompletedRecordsBefore(long beforeId, int limit) {
+        String sql = "SELECT * FROM weigh_data WHERE status = ? AND id < ? ORDER BY id DESC LIMIT ?";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, RecordStatus.COMPLETED.toString());
-            ps.setInt(2, limit);
-            ps.setInt(3, offset);
+            ps.setLong(2, beforeId);
+            ps.setInt(3, limit);
 
             ArrayList<Record> records = new ArrayList<>();
 
@@ -143,7 +299,8 @@ public class WeighDataDao {
     public int getCompletedRecordsCount() {
         String sql = "SELECT COUNT(*) FROM weigh_data WHERE status = ?";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setString(1, RecordStatus.COMPLETED.toString());
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -159,7 +316,8 @@ public class WeighDataDao {
     public Record findById(long id) {
         String sql = "SELECT * FROM weigh_data WHERE id = ?";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setLong(1, id);
             ResultSet rs = ps.executeQuery();
 
@@ -177,20 +335,14 @@ public class WeighDataDao {
     }
 
     public Boolean isPendingRecordAvailable(String lorryNumber) {
-        String sql = "SELECT lorry_no FROM weigh_data WHERE status=?";
+        String sql = "SELECT 1 FROM weigh_data WHERE lorry_hash=? AND status=? LIMIT 1";
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
-            ps.setString(1, RecordStatus.PENDING.toString());
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, SecurityUtil.blindIndex(lorryNumber));
+            ps.setString(2, RecordStatus.PENDING.toString());
             ResultSet rs = ps.executeQuery();
-
-            while (rs.next()) {
-                String encryptedLorry = rs.getString("lorry_no");
-                String decryptedLorry = SecurityUtil.decrypt(encryptedLorry);
-                if (decryptedLorry != null && decryptedLorry.equalsIgnoreCase(lorryNumber)) {
-                    return true;
-                }
-            }
-            return false;
+            return rs.next();
 
         } catch (SQLException e) {
             throw new AppException("Failed to check pending record for lorry: " + lorryNumber, e);
@@ -199,156 +351,346 @@ public class WeighDataDao {
         }
     }
 
-    public ArrayList<Record> getFilteredCompletedRecords(String lorryNo, String ticketNo, String fromDate, String toDate, int offset, int limit) {
-        StringBuilder sqlBuilder = new StringBuilder("SELECT * FROM weigh_data WHERE status = ?");
-        ArrayList<Object> params = new ArrayList<>();
-        params.add(RecordStatus.COMPLETED.toString());
+    /**
+     * Returns up to {@code limit} filtered completed records with an id below {@code beforeId},
+     * newest first. Pass {@link Long#MAX_VALUE} for the first page.
+     */
+    public ArrayList<Record> getFilteredCompletedRecordsBefore(String lorryNo, String ticketNo, String fromDate, String toDate,
+                                                               long beforeId, int limit) {
+        return queryFilteredCompleted(lorryNo, ticketNo, fromDate, toDate, " AND w.id < ?", beforeId, false, limit);
+    }
 
-        if (ticketNo != null && !ticketNo.trim().isEmpty()) {
-            sqlBuilder.append(" AND id = ?");
-            try {
-                params.add(Long.parseLong(ticketNo.trim()));
-            } catch (NumberFormatException e) {
-                return new ArrayList<>(); // invalid ticket number format
-            }
-        }
+    /**
+     * Returns the {@code limit} filtered completed records with an id above {@code afterId} that
+     * are closest to it, newest first.
+     */
+    public ArrayList<Record> getFilteredCompletedRecordsAfter(String lorryNo, String ticketNo, String fromDate, String toDate,
+                                                              long afterId, int limit) {
+        ArrayList<Record> records =
+                queryFilteredCompleted(lorryNo, ticketNo, fromDate, toDate, " AND w.id > ?", afterId, true, limit);
+        Collections.reverse(records);
+        return records;
+    }
 
-        if (fromDate != null && !fromDate.trim().isEmpty()) {
-            sqlBuilder.append(" AND date_in >= ?");
-            params.add(fromDate.trim());
-        }
+    /**
+     * Returns the id of the newest filtered completed record weighed in on or before
+     * {@code date}, or 0 if there is none.
+     */
+    public long findLatestFilteredCompletedId(String lorryNo, String ticketNo, String fromDate, String toDate, String date) {
+        ArrayList<Record> records =
+                queryFilteredCompleted(lorryNo, ticketNo, fromDate, toDate, " AND w.weighed_in_at < ?", dayAfter(date), false, 1);
+        return records.isEmpty() ? 0 : records.get(0).getId();
+    }
 
-        if (toDate != null && !toDate.trim().isEmpty()) {
-            sqlBuilder.append(" AND date_in <= ?");
-            params.add(toDate.trim());
-        }
+    public int getFilteredCompletedRecordsCount(String lorryNo, String ticketNo, String fromDate, String toDate) {
+        return countFilteredCompleted(lorryNo, ticketNo, fromDate, toDate, "", null);
+    }
 
-        sqlBuilder.append(" ORDER BY id DESC");
+    /**
+     * Counts the filtered completed records with an id above {@code afterId}, i.e. the ones
+     * listed before it.
+     */
+    public int getFilteredCompletedRecordsCountAfter(String lorryNo, String ticketNo, String fromDate, String toDate,
+                                                     long afterId) {
+        return countFilteredCompleted(lorryNo, ticketNo, fromDate, toDate, " AND w.id > ?", afterId);
+    }
 
-        boolean applyPagingInSql = (lorryNo == null || lorryNo.trim().isEmpty());
+    private ArrayList<Record> queryFilteredCompleted(String lorryNo, String ticketNo, String fromDate, String toDate,
+                                                     String keyCondition, Object keyValue, boolean ascending, int limit) {
+        String lorry = lorryNo == null ? "" : lorryNo.trim();
+        boolean shortLorry = !lorry.isEmpty() && lorry.length() < SecurityUtil.NGRAM_LENGTH;
 
-        if (applyPagingInSql) {
-            sqlBuilder.append(" LIMIT ? OFFSET ?");
-            params.add(limit);
-            params.add(offset);
-        }
+        try {
+            StringBuilder sqlBuilder = new StringBuilder("SELECT w.* FROM weigh_data w");
+            ArrayList<Object> params = new ArrayList<>();
+            if (!appendCompletedFilter(sqlBuilder, params, shortLorry ? "" : lorry, ticketNo, fromDate, toDate)) {
+                return new ArrayList<>(); // invalid ticket number format
+            }
+            sqlBuilder.append(keyCondition);
+            params.add(keyValue);
+            sqlBuilder.append(ascending ? " ORDER BY w.id ASC" : " ORDER BY w.id DESC");
 
-        try (PreparedStatement ps = connection.prepareStatement(sqlBuilder.toString())) {
-            for (int i = 0; i < params.size(); i++) {
-                ps.setObject(i + 1, params.get(i));
+            if (shortLorry) {
+                return scanForShortLorry(sqlBuilder.toString(), params, lorry, limit);
             }
 
-            ArrayList<Record> records = new ArrayList<>();
-            ResultSet rs = ps.executeQuery();
+            sqlBuilder.append(" LIMIT ?");
+            params.add(limit);
 
-            while (rs.next()) {
-                Record record = getRecordFromResultSet(rs);
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement ps = connection.prepareStatement(sqlBuilder.toString())) {
+                setParameters(ps, params);
 
-                if (!applyPagingInSql) {
-                    String decryptedLorry = record.getLorryNumber();
-                    if (decryptedLorry != null && decryptedLorry.toLowerCase().contains(lorryNo.trim().toLowerCase())) {
-                        records.add(record);
-                    }
-                } else {
-                    records.add(record);
+                ArrayList<Record> records = new ArrayList<>();
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    records.add(getRecordFromResultSet(rs));
                 }
+                return records;
             }
 
-            if (!applyPagingInSql) {
-                int toIndex = Math.min(offset + limit, records.size());
-                if (offset >= records.size()) {
-                    return new ArrayList<>();
-                }
-                return new ArrayList<>(records.subList(offset, toIndex));
+        } catch (SQLException e) {
+            throw new AppException("Failed to retrieve filtered COMPLETED records", e);
+        } catch (Exception e) {
+            throw new AppException("Unexpected error retrieving filtered records", e);
+        }
+    }
+
+    private int countFilteredCompleted(String lorryNo, String ticketNo, String fromDate, String toDate,
+                                       String keyCondition, Object keyValue) {
+        String lorry = lorryNo == null ? "" : lorryNo.trim();
+        boolean shortLorry = !lorry.isEmpty() && lorry.length() < SecurityUtil.NGRAM_LENGTH;
+
+        try {
+            StringBuilder sqlBuilder = new StringBuilder(shortLorry
+                    ? "SELECT w.* FROM weigh_data w"
+                    : "SELECT COUNT(*) FROM weigh_data w");
+            ArrayList<Object> params = new ArrayList<>();
+            if (!appendCompletedFilter(sqlBuilder, params, shortLorry ? "" : lorry, ticketNo, fromDate, toDate)) {
+                return 0;
+            }
+            if (keyValue != null) {
+                sqlBuilder.append(keyCondition);
+                params.add(keyValue);
             }
 
-            return records;
+            if (shortLorry) {
+                return scanForShortLorry(sqlBuilder.toString(), params, lorry, Integer.MAX_VALUE).size();
+            }
+
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement ps = connection.prepareStatement(sqlBuilder.toString())) {
+                setParameters(ps, params);
+                ResultSet rs = ps.executeQuery();
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+                return 0;
+            }
 
         } catch (SQLException e) {
-            throw new AppException("Failed to retrieve filtered COMPLETED records", e);
+            throw new AppException("Failed to get filtered COMPLETED records count", e);
         } catch (Exception e) {
-            throw new AppException("Unexpected error retrieving filtered records", e);
+            throw new AppException("Unexpected error getting filtered count", e);
         }
     }
 
-    public int getFilteredCompletedRecordsCount(String lorryNo, String ticketNo, String fromDate, String toDate) {
-        StringBuilder sqlBuilder = new StringBuilder("SELECT * FROM weigh_data WHERE status = ?");
-        ArrayList<Object> params = new ArrayList<>();
+    /**
+     * Appends the conditions of the completed-records filter to {@code sql}, which selects from
+     * {@code weigh_data w}, and their values to {@code params}. A lorry filter becomes a join on
+     * the n-gram token table: one token every {@link SecurityUtil#NGRAM_LENGTH} characters plus
+     * the last one, each at its offset from the first, which matches exactly the records whose
+     * lorry number contains the filter. Returns {@code false} if {@code ticketNo} is not a
+     * number, in which case nothing can match.
+     */
+    private boolean appendCompletedFilter(StringBuilder sql, ArrayList<Object> params, String lorry,
+                                          String ticketNo, String fromDate, String toDate) throws Exception {
+        if (!lorry.isEmpty()) {
+            String[] tokens = SecurityUtil.ngramTokens(lorry);
+            sql.append(" JOIN (SELECT DISTINCT t0.record_id FROM weigh_data_lorry_token t0");
+            int n = SecurityUtil.NGRAM_LENGTH;
+            int last = tokens.length - 1;
+            for (int step = n; step < last + n; step += n) {
+                int offset = Math.min(step, last);
+                String alias = "t" + offset;
+                sql.append(" JOIN weigh_data_lorry_token ").append(alias)
+                        .append(" ON ").append(alias).append(".record_id = t0.record_id")
+                        .append(" AND ").append(alias).append(".pos = t0.pos + ").append(offset)
+                        .append(" AND ").append(alias).append(".token = ?");
+                params.add(tokens[offset]);
+            }
+            sql.append(" WHERE t0.token = ?) m ON m.record_id = w.id");
+            params.add(tokens[0]);
+        }
+
+        sql.append(" WHERE w.status = ?");
         params.add(RecordStatus.COMPLETED.toString());
 
         if (ticketNo != null && !ticketNo.trim().isEmpty()) {
-            sqlBuilder.append(" AND id = ?");
+            sql.append(" AND w.id = ?");
             try {
                 params.add(Long.parseLong(ticketNo.trim()));
             } catch (NumberFormatException e) {
-                return 0;
+                return false;
             }
         }
 
         if (fromDate != null && !fromDate.trim().isEmpty()) {
-            sqlBuilder.append(" AND date_in >= ?");
-            params.add(fromDate.trim());
+            sql.append(" AND w.weighed_in_at >= ?");
+            params.add(Timestamp.valueOf(LocalDate.parse(fromDate.trim(), DATE_FORMAT).atStartOfDay()));
         }
 
         if (toDate != null && !toDate.trim().isEmpty()) {
-            sqlBuilder.append(" AND date_in <= ?");
-            params.add(toDate.trim());
+            sql.append(" AND w.weighed_in_at < ?");
+            params.add(dayAfter(toDate.trim()));
         }
+        return true;
+    }
 
-        boolean hasLorryFilter = (lorryNo != null && !lorryNo.trim().isEmpty());
-
-        if (hasLorryFilter) {
-            try (PreparedStatement ps = connection.prepareStatement(sqlBuilder.toString())) {
-                for (int i = 0; i < params.size(); i++) {
-                    ps.setObject(i + 1, params.get(i));
+    /**
+     * Filters shorter than one n-gram cannot use the token index, so they are matched after
+     * decrypting every record the rest of the filter selects.
+     */
+    private ArrayList<Record> scanForShortLorry(String sql, ArrayList<Object> params, String lorry, int limit) throws Exception {
+        String needle = lorry.toLowerCase();
+        ArrayList<Record> records = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            setParameters(ps, params);
+            ResultSet rs = ps.executeQuery();
+            while (records.size() < limit && rs.next()) {
+                Record record = getRecordFromResultSet(rs);
+                String decryptedLorry = record.getLorryNumber();
+                if (decryptedLorry != null && decryptedLorry.toLowerCase().contains(needle)) {
+                    records.add(record);
                 }
+            }
+        }
+        return records;
+    }
 
-                int count = 0;
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) {
-                    String encryptedLorry = rs.getString("lorry_no");
-                    String decryptedLorry = SecurityUtil.decrypt(encryptedLorry);
-                    if (decryptedLorry != null && decryptedLorry.toLowerCase().contains(lorryNo.trim().toLowerCase())) {
-                        count++;
-                    }
-                }
-                return count;
-            } catch (SQLException e) {
-                throw new AppException("Failed to get filtered COMPLETED records count", e);
-            } catch (Exception e) {
-                throw new AppException("Unexpected error getting filtered count", e);
+    private static void setParameters(PreparedStatement ps, ArrayList<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Stores the n-gram tokens of {@code lorryNo} for substring search, on the caller's
+     * connection so they commit together with the record. A lorry number too short for any
+     * token gets the {@link DatabaseConfig#NO_TOKENS_POS} placeholder, so the startup backfill
+     * skips it.
+     */
+    private static void insertLorryTokens(Connection connection, long recordId, String lorryNo) throws Exception {
+        String[] tokens = SecurityUtil.ngramTokens(lorryNo);
+        String sql = "INSERT IGNORE INTO weigh_data_lorry_token (record_id, pos, token) VALUES (?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            if (tokens.length == 0) {
+                ps.setLong(1, recordId);
+                ps.setInt(2, DatabaseConfig.NO_TOKENS_POS);
+                ps.setString(3, DatabaseConfig.NO_TOKENS_TOKEN);
+                ps.addBatch();
             }
+            for (int pos = 0; pos < tokens.length; pos++) {
+                ps.setLong(1, recordId);
+                ps.setInt(2, pos);
+                ps.setString(3, tokens[pos]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
 
+    /**
+     * Binds a lane number, or NULL when {@code lane} is 0 or less.
+     */
+    private static void setLane(PreparedStatement ps, int index, int lane) throws SQLException {
+        if (lane > 0) {
+            ps.setInt(index, lane);
         } else {
-            String countSql = sqlBuilder.toString().replace("SELECT *", "SELECT COUNT(*)");
-            try (PreparedStatement ps = connection.prepareStatement(countSql)) {
-                for (int i = 0; i < params.size(); i++) {
-                    ps.setObject(i + 1, params.get(i));
-                }
-                ResultSet rs = ps.executeQuery();
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
-                return 0;
-            } catch (SQLException e) {
-                throw new AppException("Failed to get count for filtered COMPLETED records", e);
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    /**
+     * Binds the five capture statistic columns starting at {@code index}.
+     */
+    private static void setCaptureStats(PreparedStatement ps, int index, CaptureStats stats) throws SQLException {
+        if (stats == null) {
+            for (int i = 0; i < 5; i++) {
+                ps.setNull(index + i, Types.INTEGER);
             }
+            return;
+        }
+        ps.setInt(index, stats.getSampleCount());
+        ps.setInt(index + 1, stats.getMinKg());
+        ps.setInt(index + 2, stats.getMaxKg());
+        ps.setDouble(index + 3, stats.getStdDevKg());
+        if (stats.getSettleMs() >= 0) {
+            ps.setLong(index + 4, stats.getSettleMs());
+        } else {
+            ps.setNull(index + 4, Types.INTEGER);
+        }
+    }
+
+    private static CaptureStats getCaptureStats(ResultSet rs, String prefix) throws SQLException {
+        int samples = rs.getInt(prefix + "_samples");
+        if (rs.wasNull()) {
+            return null;
+        }
+        CaptureStats stats = new CaptureStats();
+        stats.setSampleCount(samples);
+        stats.setMinKg(rs.getInt(prefix + "_min"));
+        stats.setMaxKg(rs.getInt(prefix + "_max"));
+        stats.setStdDevKg(rs.getDouble(prefix + "_stddev"));
+        long settleMs = rs.getLong(prefix + "_settle_ms");
+        stats.setSettleMs(rs.wasNull() ? -1 : settleMs);
+        return stats;
+    }
+
+    /**
+     * Returns the start of the day after {@code date}, the exclusive upper bound of a range
+     * that includes {@code date}.
+     */
+    private static Timestamp dayAfter(String date) {
+        return Timestamp.valueOf(LocalDate.parse(date, DATE_FORMAT).plusDays(1).atStartOfDay());
+    }
+
+    private static Timestamp toTimestamp(String date, String time) {
+        if (date == null || time == null) {
+            return null;
+        }
+        try {
+            return Timestamp.valueOf(LocalDateTime.of(LocalDate.parse(date, DATE_FORMAT), LocalTime.parse(time, TIME_FORMAT)));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sets the record's date and time fields from the typed timestamps, falling back to the
+     * legacy text columns for rows that could not be backfilled.
+     */
+    private static void setWeighTimes(Record record, ResultSet rs) throws SQLException {
+        Timestamp in = rs.getTimestamp("weighed_in_at");
+        if (in != null) {
+            record.setDateIn(in.toLocalDateTime().format(DATE_FORMAT));
+            record.setTimeIn(in.toLocalDateTime().format(TIME_FORMAT));
+        } else {
+            record.setDateIn(rs.getString("date_in"));
+            record.setTimeIn(rs.getString("time_in"));
+        }
+
+        Timestamp out = rs.getTimestamp("weighed_out_at");
+        if (out != null) {
+            record.setDateOut(out.toLocalDateTime().format(DATE_FORMAT));
+            record.setTimeOut(out.toLocalDateTime().format(TIME_FORMAT));
+        } else {
+            record.setDateOut(rs.getString("date_out"));
+            record.setTimeOut(rs.getString("time_out"));
         }
     }
 
     private Record getRecordFromResultSet(ResultSet rs) throws Exception {
         Record record = new Record(SecurityUtil.decrypt(rs.getString("lorry_no")));
         record.setId(rs.getLong("id"));
-        record.setDateIn(rs.getString("date_in"));
-        record.setDateOut(rs.getString("date_out"));
-        record.setTimeIn(rs.getString("time_in"));
-        record.setTimeOut(rs.getString("time_out"));
+        setWeighTimes(record, rs);
         record.setFirstWeight(rs.getInt("first_weight"));
         record.setSecondWeight(rs.getInt("second_weight"));
         record.setNetWeight(rs.getInt("net_weight"));
         record.setCustomerName(SecurityUtil.decrypt(rs.getString("customer_name")));
         record.setProductName(SecurityUtil.decrypt(rs.getString("product_name")));
         record.setDriverName(SecurityUtil.decrypt(rs.getString("driver_name")));
+        record.setFirstCaptureStats(getCaptureStats(rs, "first"));
+        record.setSecondCaptureStats(getCaptureStats(rs, "second"));
+        record.setStoredTare(rs.getBoolean("stored_tare"));
+        Timestamp tareWeighed = rs.getTimestamp("stored_tare_weighed_at");
+        if (tareWeighed != null) {
+            record.setStoredTareWeighed(tareWeighed.toLocalDateTime().format(DATE_FORMAT) + " "
+                    + tareWeighed.toLocalDateTime().format(TIME_FORMAT));
+        }
+        record.setFirstLane(rs.getInt("first_lane"));
+        record.setSecondLane(rs.getInt("second_lane"));
         return record;
     }
 
@@ -0,0 +1,17 @@
+package com.hcs.weighbridge.model;
+
+public class AutoCaptureConfig {
+
+    private boolean enabled;
+    private int minWeightKg = 1000;
+    private long holdMs = 3000;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMinWeightKg() { return minWeightKg; }
+    public void setMinWeightKg(int minWeightKg) { this.minWeightKg = minWeightKg; }
+
+    public long getHoldMs() { return holdMs; }
+    public void setHoldMs(long holdMs) { this.holdMs = holdMs; }
+}
@@ -0,0 +1,50 @@
+package com.hcs.weighbridge.model;
+
+/**
+ * Statistics of the samples just before a weight was captured, kept with the record so a
+ * disputed ticket can be judged on the readings behind it.
+ */
+public class CaptureStats {
+
+    private int sampleCount;
+    private int minKg;
+    private int maxKg;
+    private double stdDevKg;
+    private long settleMs = -1;
+
+    public CaptureStats() {
+    }
+
+    public CaptureStats(int sampleCount, int minKg, int maxKg, double stdDevKg, long settleMs) {
+        this.sampleCount = sampleCount;
+        this.minKg = minKg;
+        this.maxKg = maxKg;
+        this.stdDevKg = stdDevKg;
+        this.settleMs = settleMs;
+    }
+
+    public int getSampleCount() { return sampleCount; }
+    public void setSampleCount(int sampleCount) { this.sampleCount = sampleCount; }
+
+    public int getMinKg() { return minKg; }
+    public void setMinKg(int minKg) { this.minKg = minKg; }
+
+    public int getMaxKg() { return maxKg; }
+    public void setMaxKg(int maxKg) { this.maxKg = maxKg; }
+
+    public double getStdDevKg() { return stdDevKg; }
+    public void setStdDevKg(double stdDevKg) { this.stdDevKg = stdDevKg; }
+
+    /**
+     * Time from the vehicle coming onto the deck until the reading stayed within tolerance,
+     * or -1 if it had not settled.
+     */
+    public long getSettleMs() { return settleMs; }
+    public void setSettleMs(long settleMs) { this.settleMs = settleMs; }
+
+    @Override
+    public String toString() {
+        return String.format("%d samples, %d..%d kg, sd %.1f kg, settled in %d ms",
+                sampleCount, minKg, maxKg, stdDevKg, settleMs);
+    }
+}
@@ -0,0 +1,19 @@
+package com.hcs.weighbridge.model;
+
+import com.hcs.weighbridge.constants.FilterMode;
+
+public class FilterConfig {
+
+    private FilterMode mode = FilterMode.NONE;
+    private int medianWindow = 5;
+    private double emaAlpha = 0.3;
+
+    public FilterMode getMode() { return mode; }
+    public void setMode(FilterMode mode) { this.mode = mode; }
+
+    public int getMedianWindow() { return medianWindow; }
+    public void setMedianWindow(int medianWindow) { this.medianWindow = medianWindow; }
+
+    public double getEmaAlpha() { return emaAlpha; }
+    public void setEmaAlpha(double emaAlpha) { this.emaAlpha = emaAlpha; }
+}
@@ -15,6 +15,12 @@ public class Record {
     private final IntegerProperty firstWeight = new SimpleIntegerProperty();
     private final IntegerProperty secondWeight = new SimpleIntegerProperty();
     private final IntegerProperty netWeight = new SimpleIntegerProperty();
+    private CaptureStats firstCaptureStats;
+    private CaptureStats secondCaptureStats;
+    private boolean storedTare;
+    private String storedTareWeighed;
+    private int firstLane;
+    private int secondLane;
 
     public Record(String lorryNumber) {
         this.lorryNumber.set(lorryNumber);
@@ -31,6 +37,37 @@ public class Record {
     public String getLorryNumber() { return lorryNumber.get(); }
     public void setLorryNumber(String lorryNumber) { this.lorryNumber.set(lorryNumber); }
 
+    public CaptureStats getFirstCaptureStats() { return firstCaptureStats; }
+    public void setFirstCaptureStats(CaptureStats stats) { this.firstCaptureStats = stats; }
+
+    public CaptureStats getSecondCaptureStats() { return secondCaptureStats; }
+    public void setSecondCaptureStats(CaptureStats stats) { this.secondCaptureStats = stats; }
+
+    /**
+     * {@code true} when the first weight is a stored tare rather than a measured one.
+     */
+    public boolean isStoredTare() { return storedTare; }
+    public void setStoredTare(boolean storedTare) { this.storedTare = storedTare; }
+
+    /**
+     * When the stored tare was measured, as {@code yyyy-MM-dd HH:mm}; {@code null} unless
+     * {@link #isStoredTare()}.
+     */
+    public String getStoredTareWeighed() { return storedTareWeighed; }
+    public void setStoredTareWeighed(String storedTareWeighed) { this.storedTareWeighed = storedTareWeighed; }
+
+    /**
+     * Number of the scale, counted from 1, that took the first weight; 0 when unknown.
+     */
+    public int getFirstLane() { return firstLane; }
+    public void setFirstLane(int firstLane) { this.firstLane = firstLane; }
+
+    /**
+     * Number of the scale, counted from 1, that took the second weight; 0 when unknown.
+     */
+    public int getSecondLane() { return secondLane; }
+    public void setSecondLane(int secondLane) { this.secondLane = secondLane; }
+
     public int getFirstWeight() { return firstWeight.get(); }
     public void setFirstWeight(int weight) { this.firstWeight.set(weight); }
 
@@ -1,5 +1,7 @@
 package com.hcs.weighbridge.model;
 
+import com.hcs.weighbridge.constants.IngestMode;
+
 public class SerialConfig {
 
     private String portName;
@@ -7,6 +9,8 @@ public class SerialConfig {
     private int dataBits;
     private int stopBits;
     private int parity;
+    private IngestMode ingestMode = IngestMode.BLOCKING;
+    private String protocolName = "STANDARD";
 
     public String getPortName() { return portName; }
     public void setPortName(String portName) { this.portName = portName; }
@@ -22,4 +26,10 @@ public class SerialConfig {
 
     public int getParity() { return parity; }
     public void setParity(int parity) { this.parity = parity; }
+
+    public IngestMode getIngestMode() { return ingestMode; }
+    public void setIngestMode(IngestMode ingestMode) { this.ingestMode = ingestMode; }
+
+    public String getProtocolName() { return protocolName; }
+    public void setProtocolName(String protocolName) { this.protocolName = protocolName; }
 }
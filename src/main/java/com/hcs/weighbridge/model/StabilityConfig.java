@@ -0,0 +1,21 @@
+package com.hcs.weighbridge.model;
+
+public class StabilityConfig {
+
+    private boolean softwareEnabled;
+    private long windowMs = 2000;
+    private int toleranceKg = 20;
+    private double maxSlopeKgPerSec = 10.0;
+
+    public boolean isSoftwareEnabled() { return softwareEnabled; }
+    public void setSoftwareEnabled(boolean softwareEnabled) { this.softwareEnabled = softwareEnabled; }
+
+    public long getWindowMs() { return windowMs; }
+    public void setWindowMs(long windowMs) { this.windowMs = windowMs; }
+
+    public int getToleranceKg() { return toleranceKg; }
+    public void setToleranceKg(int toleranceKg) { this.toleranceKg = toleranceKg; }
+
+    public double getMaxSlopeKgPerSec() { return maxSlopeKgPerSec; }
+    public void setMaxSlopeKgPerSec(double maxSlopeKgPerSec) { this.maxSlopeKgPerSec = maxSlopeKgPerSec; }
+}
@@ -0,0 +1,21 @@
+package com.hcs.weighbridge.model;
+
+public class StoredTareConfig {
+
+    private boolean enabled;
+    private int maxAgeDays = 30;
+    private int minSamples = 3;
+    private int toleranceKg = 100;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxAgeDays() { return maxAgeDays; }
+    public void setMaxAgeDays(int maxAgeDays) { this.maxAgeDays = maxAgeDays; }
+
+    public int getMinSamples() { return minSamples; }
+    public void setMinSamples(int minSamples) { this.minSamples = minSamples; }
+
+    public int getToleranceKg() { return toleranceKg; }
+    public void setToleranceKg(int toleranceKg) { this.toleranceKg = toleranceKg; }
+}
@@ -0,0 +1,133 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.model.AutoCaptureConfig;
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Weight bus subscriber that fires once per vehicle when the load has stayed stable above a
+ * threshold for a hold time.
+ * <p>
+ * After a capture is accepted the trigger disarms until the weight falls below the threshold
+ * again, so a vehicle standing on the deck is never captured twice. A capture the listener
+ * declines (no lorry number yet, a save already running) leaves it armed and the window keeps
+ * growing until the listener accepts. A capture that was accepted but then could not be
+ * saved is handed back with {@link #rearm()}.
+ */
+public class AutoCaptureTrigger implements WeightBus.SampleHandler, AutoCloseable {
+
+    private static final Logger logger = LogUtil.getLogger(AutoCaptureTrigger.class);
+
+    private static final long POLL_MS = 20;
+
+    /**
+     * Called on the trigger's own thread.
+     */
+    public interface CaptureListener {
+
+        /**
+         * @return {@code true} if the capture was taken, which disarms the trigger until the
+         *         vehicle leaves
+         */
+        boolean onCapture(CaptureWindow window);
+    }
+
+    private final ScaleLane lane;
+    private final int minWeightKg;
+    private final long holdNanos;
+    private final CaptureListener listener;
+    private WeightBus.Subscriber subscriber;
+
+    private boolean armed = true;
+    private volatile boolean rearmRequested;
+    private long runStartNanos = -1;
+    private long firstSequence;
+    private int minKg;
+    private int maxKg;
+    private int samples;
+
+    public AutoCaptureTrigger(ScaleLane lane, AutoCaptureConfig config, CaptureListener listener) {
+        this.lane = lane;
+        this.minWeightKg = config.getMinWeightKg();
+        this.holdNanos = config.getHoldMs() * 1_000_000L;
+        this.listener = listener;
+    }
+
+    public void start() {
+        subscriber = lane.getBus().subscribe("auto-capture");
+        subscriber.startPolling(this, POLL_MS);
+        logger.info("Auto-capture armed on {}: >= {} kg stable for {} ms",
+                lane.getName(), minWeightKg, holdNanos / 1_000_000L);
+    }
+
+    @Override
+    public void onSample(long sequence, int weightKg, char status, long receivedNanos) {
+        if (rearmRequested) {
+            rearmRequested = false;
+            armed = true;
+            runStartNanos = -1;
+        }
+        if (weightKg < minWeightKg) {
+            armed = true;
+            runStartNanos = -1;
+            return;
+        }
+        if (!armed) {
+            return;
+        }
+        if (!isStable(status)) {
+            runStartNanos = -1;
+            return;
+        }
+
+        if (runStartNanos < 0) {
+            runStartNanos = receivedNanos;
+            firstSequence = sequence;
+            minKg = weightKg;
+            maxKg = weightKg;
+            samples = 0;
+        }
+        samples++;
+        minKg = Math.min(minKg, weightKg);
+        maxKg = Math.max(maxKg, weightKg);
+
+        long heldNanos = receivedNanos - runStartNanos;
+        if (heldNanos < holdNanos) {
+            return;
+        }
+        CaptureWindow window = new CaptureWindow(weightKg, minKg, maxKg, samples,
+                firstSequence, sequence, heldNanos / 1_000_000L, status);
+        if (listener.onCapture(window)) {
+            armed = false;
+            runStartNanos = -1;
+        }
+    }
+
+    private boolean isStable(char status) {
+        StabilityDetector detector = lane.getStability();
+        if (detector != null) {
+            return detector.isStable();
+        }
+        return status == 'P' || status == 'T';
+    }
+
+    /**
+     * Arms the trigger again after an accepted capture was not saved, so the vehicle still on
+     * the deck is captured after a fresh hold time. Safe to call from any thread.
+     */
+    public void rearm() {
+        rearmRequested = true;
+    }
+
+    public ScaleLane getLane() {
+        return lane;
+    }
+
+    @Override
+    public void close() {
+        if (subscriber != null) {
+            subscriber.close();
+            subscriber = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.hcs.weighbridge.serial;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with "equal jitter": each delay is half the current step plus a random
+ * part of the other half, so several readers retrying together drift apart.
+ */
+public class Backoff {
+
+    private final long baseMs;
+    private final long maxMs;
+    private int attempt;
+
+    public Backoff(long baseMs, long maxMs) {
+        this.baseMs = baseMs;
+        this.maxMs = maxMs;
+    }
+
+    public long nextDelayMs() {
+        long step = Math.min(maxMs, baseMs << Math.min(attempt, 20));
+        attempt++;
+        long half = step / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public void reset() {
+        attempt = 0;
+    }
+}
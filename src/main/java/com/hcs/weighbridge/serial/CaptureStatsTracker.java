@@ -0,0 +1,167 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.model.CaptureStats;
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps running statistics of the last {@code windowMs} of raw samples so that count, min,
+ * max and standard deviation are ready the moment a weight is captured.
+ * <p>
+ * The ring is sized like the {@link StabilityDetector}'s, from the window at
+ * {@link StabilityDetector#MAX_FRAME_RATE_HZ}. Sums are exact longs and min/max come from
+ * monotonic queues, so each sample costs O(1)
+ * amortised. Settle time runs from the weight rising above {@link #LOADED_THRESHOLD_KG} to
+ * the first full window within the tolerance; movement after that starts the clock again
+ * from the original arrival.
+ * <p>
+ * {@link #onSample} is called from the reader thread and {@link #snapshot()} from any
+ * thread; both are synchronized, which costs nothing measurable uncontended at frame rate.
+ */
+public class CaptureStatsTracker {
+
+    private static final Logger logger = LogUtil.getLogger(CaptureStatsTracker.class);
+
+    /**
+     * Below this the deck is treated as empty.
+     */
+    public static final int LOADED_THRESHOLD_KG = 500;
+
+    private final long windowNanos;
+    private final int toleranceKg;
+    private final int capacity;
+    private final int mask;
+
+    private final int[] weights;
+    private final long[] times;
+    private long head;
+    private long tail;
+    private long sum;
+    private long sumSquares;
+
+    private final long[] maxQueue;
+    private int maxFront;
+    private int maxSize;
+    private final long[] minQueue;
+    private int minFront;
+    private int minSize;
+    private boolean overrunLogged;
+
+    private long loadedSinceNanos = -1;
+    private long settledAtNanos = -1;
+
+    public CaptureStatsTracker(long windowMs, int toleranceKg) {
+        long clampedMs = StabilityDetector.clampWindowMs(windowMs);
+        this.windowNanos = clampedMs * 1_000_000L;
+        this.toleranceKg = toleranceKg;
+        this.capacity = StabilityDetector.capacityFor(clampedMs);
+        this.mask = capacity - 1;
+        this.weights = new int[capacity];
+        this.times = new long[capacity];
+        this.maxQueue = new long[capacity];
+        this.minQueue = new long[capacity];
+    }
+
+    public synchronized void onSample(int weightKg, long nanoTime) {
+        if (head - tail == capacity) {
+            if (!overrunLogged && times[(int) (tail & mask)] > nanoTime - windowNanos) {
+                overrunLogged = true;
+                logger.warn("More than {} samples within the {} ms capture window; statistics cover "
+                        + "only the latest {}", capacity, windowNanos / 1_000_000L, capacity);
+            }
+            evictOldest();
+        }
+        long seq = head++;
+        int slot = (int) (seq & mask);
+        weights[slot] = weightKg;
+        times[slot] = nanoTime;
+        sum += weightKg;
+        sumSquares += (long) weightKg * weightKg;
+        pushMax(seq, weightKg);
+        pushMin(seq, weightKg);
+
+        long windowStart = nanoTime - windowNanos;
+        while (head - tail > 1 && times[(int) ((tail + 1) & mask)] <= windowStart) {
+            evictOldest();
+        }
+
+        trackSettling(weightKg, nanoTime, windowStart);
+    }
+
+    private void trackSettling(int weightKg, long nanoTime, long windowStart) {
+        if (weightKg < LOADED_THRESHOLD_KG) {
+            loadedSinceNanos = -1;
+            settledAtNanos = -1;
+            return;
+        }
+        if (loadedSinceNanos < 0) {
+            loadedSinceNanos = nanoTime;
+        }
+        boolean covered = times[(int) (tail & mask)] <= windowStart;
+        boolean flat = covered && getRange() <= toleranceKg;
+        if (!flat) {
+            settledAtNanos = -1;
+        } else if (settledAtNanos < 0) {
+            settledAtNanos = nanoTime;
+        }
+    }
+
+    /**
+     * Returns the statistics of the current window, or {@code null} before the first sample.
+     */
+    public synchronized CaptureStats snapshot() {
+        long n = head - tail;
+        if (n == 0) {
+            return null;
+        }
+        double mean = (double) sum / n;
+        double variance = Math.max(0, (double) sumSquares / n - mean * mean);
+        long settleMs = loadedSinceNanos >= 0 && settledAtNanos >= 0
+                ? (settledAtNanos - loadedSinceNanos) / 1_000_000L
+                : -1;
+        return new CaptureStats((int) n,
+                weights[(int) (minQueue[minFront] & mask)],
+                weights[(int) (maxQueue[maxFront] & mask)],
+                Math.sqrt(variance),
+                settleMs);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    private int getRange() {
+        return weights[(int) (maxQueue[maxFront] & mask)] - weights[(int) (minQueue[minFront] & mask)];
+    }
+
+    private void evictOldest() {
+        long seq = tail++;
+        int slot = (int) (seq & mask);
+        sum -= weights[slot];
+        sumSquares -= (long) weights[slot] * weights[slot];
+        if (maxSize > 0 && maxQueue[maxFront] == seq) {
+            maxFront = (maxFront + 1) & mask;
+            maxSize--;
+        }
+        if (minSize > 0 && minQueue[minFront] == seq) {
+            minFront = (minFront + 1) & mask;
+            minSize--;
+        }
+    }
+
+    private void pushMax(long seq, int weight) {
+        while (maxSize > 0 && weights[(int) (maxQueue[(maxFront + maxSize - 1) & mask] & mask)] <= weight) {
+            maxSize--;
+        }
+        maxQueue[(maxFront + maxSize) & mask] = seq;
+        maxSize++;
+    }
+
+    private void pushMin(long seq, int weight) {
+        while (minSize > 0 && weights[(int) (minQueue[(minFront + minSize - 1) & mask] & mask)] >= weight) {
+            minSize--;
+        }
+        minQueue[(minFront + minSize) & mask] = seq;
+        minSize++;
+    }
+}
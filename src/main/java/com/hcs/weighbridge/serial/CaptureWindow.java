@@ -0,0 +1,70 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * The run of stable samples that justified an automatic capture.
+ */
+public final class CaptureWindow {
+
+    private final int weightKg;
+    private final int minKg;
+    private final int maxKg;
+    private final int samples;
+    private final long firstSequence;
+    private final long lastSequence;
+    private final long durationMs;
+    private final char status;
+
+    CaptureWindow(int weightKg, int minKg, int maxKg, int samples,
+                  long firstSequence, long lastSequence, long durationMs, char status) {
+        this.weightKg = weightKg;
+        this.minKg = minKg;
+        this.maxKg = maxKg;
+        this.samples = samples;
+        this.firstSequence = firstSequence;
+        this.lastSequence = lastSequence;
+        this.durationMs = durationMs;
+        this.status = status;
+    }
+
+    /**
+     * The weight to record: the last sample of the window.
+     */
+    public int getWeightKg() {
+        return weightKg;
+    }
+
+    public int getMinKg() {
+        return minKg;
+    }
+
+    public int getMaxKg() {
+        return maxKg;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public long getFirstSequence() {
+        return firstSequence;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public char getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return weightKg + " kg from " + samples + " samples over " + durationMs + " ms (range "
+                + minKg + ".." + maxKg + " kg, seq " + firstSequence + ".." + lastSequence
+                + ", status " + status + ")";
+    }
+}
@@ -0,0 +1,35 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Exponential moving average, {@code y += alpha * (x - y)}. Smaller alphas smooth more but
+ * follow a changing load more slowly.
+ */
+public class EmaFilter implements WeightFilter {
+
+    private final double alpha;
+    private double value;
+    private boolean seeded;
+
+    /**
+     * @param alpha weight of the newest sample, clamped to 0.01..1
+     */
+    public EmaFilter(double alpha) {
+        this.alpha = Math.max(0.01, Math.min(1.0, alpha));
+    }
+
+    @Override
+    public int apply(int weightKg) {
+        if (seeded) {
+            value += alpha * (weightKg - value);
+        } else {
+            value = weightKg;
+            seeded = true;
+        }
+        return (int) Math.round(value / 5.0) * 5;
+    }
+
+    @Override
+    public void reset() {
+        seeded = false;
+    }
+}
@@ -0,0 +1,102 @@
+package com.hcs.weighbridge.serial;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base class for the byte-level state machines created by a {@link ScaleProtocol}.
+ * <p>
+ * Decoders read straight from the caller's receive buffer and report primitives, so a steady
+ * stream of frames produces no garbage. Instances are not thread-safe; each reader owns its
+ * own decoder.
+ */
+public abstract class FrameDecoder {
+
+    private static final int RAW_CAPACITY = 64;
+
+    protected static final long[] POW10 = new long[10];
+
+    static {
+        POW10[0] = 1L;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10L;
+        }
+    }
+
+    private final FrameListener listener;
+    private final byte[] raw = new byte[RAW_CAPACITY];
+    private int rawLength;
+
+    private long validFrames;
+    private long invalidFrames;
+
+    protected FrameDecoder(FrameListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Feeds a single byte into the decoder, dispatching to the listener when a frame completes.
+     */
+    public abstract void accept(byte b);
+
+    /**
+     * Feeds {@code length} bytes starting at {@code offset}.
+     */
+    public void accept(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            accept(buffer[i]);
+        }
+    }
+
+    /**
+     * Clears any partially received frame.
+     */
+    public void reset() {
+        rawLength = 0;
+    }
+
+    protected final void captureRaw(byte b) {
+        if (rawLength < RAW_CAPACITY) {
+            raw[rawLength] = b;
+        }
+        rawLength++;
+    }
+
+    protected final void emitFrame(char status, int weightKg) {
+        validFrames++;
+        listener.onFrame(status, weightKg);
+    }
+
+    protected final void emitInvalid() {
+        invalidFrames++;
+        listener.onInvalidFrame(this);
+    }
+
+    /**
+     * Rounds {@code mantissa / 10^scale} kg to the nearest 5 kg. Equivalent to
+     * {@code Math.round(weight / 5.0) * 5} without going through floating point.
+     */
+    protected static int roundToFiveKg(long mantissa, int scale) {
+        long unit = POW10[scale];
+        long steps = Math.floorDiv(2 * mantissa + 5 * unit, 10 * unit);
+        return (int) steps * 5;
+    }
+
+    /**
+     * Returns the raw text of the frame that was just completed. Allocates, so only meant for
+     * diagnostics on the invalid-frame path.
+     */
+    public String lastFrameAsString() {
+        int length = Math.min(rawLength, RAW_CAPACITY);
+        String text = new String(raw, 0, length, StandardCharsets.ISO_8859_1);
+        return rawLength > RAW_CAPACITY ? text + "..." : text;
+    }
+
+    public long getValidFrames() {
+        return validFrames;
+    }
+
+    public long getInvalidFrames() {
+        return invalidFrames;
+    }
+}
@@ -0,0 +1,368 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only, size-bounded journal of the raw bytes received from the indicator.
+ * <p>
+ * The file is memory mapped and used as a ring: once full, the oldest chunks are overwritten.
+ * Appending is a memory copy with no system call, so the read loop never waits on disk; the
+ * OS writes the pages back in the background. The journal survives restarts, so the frames
+ * behind a disputed ticket can be pulled out later with {@link #read} or
+ * {@link #aroundCapture}.
+ * <p>
+ * Layout: a 64 byte header (magic, version, capacity, head, tail) followed by records of
+ * {@code int length, long epochNanos, byte[length] data}. A record never wraps; a length of
+ * -1 (or fewer than 4 bytes left) marks the skipped end of the region. Head and tail are
+ * logical offsets that only grow, the physical position being {@code offset % capacity}.
+ * <p>
+ * One thread appends. Readers never take the writer's lock: they scan their own view of the
+ * mapping between a snapshot of tail and head, and since the writer moves tail past a record
+ * before overwriting it, a reader that finds tail beyond its cursor drops what it just read
+ * and resumes at the new tail. {@link #close()} unmaps the file once readers are done, so it
+ * can be reopened with another size straight away (Windows refuses to resize a file while a
+ * mapping of it is alive).
+ */
+public class FrameJournal implements Closeable {
+
+    private static final Logger logger = LogUtil.getLogger(FrameJournal.class);
+
+    public static final String DEFAULT_PATH = "journal/frames.journal";
+
+    private static final int MAGIC = 0x57424A31; // "WBJ1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_CAPACITY = 8;
+    private static final int OFFSET_HEAD = 16;
+    private static final int OFFSET_TAIL = 24;
+
+    private static final int RECORD_HEADER_SIZE = 12;
+    private static final int PAD = -1;
+    private static final int MAX_RECORD_BYTES = 4096;
+    private static final int MAX_SIZE_MB = 1024;
+    private static final long REANCHOR_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private final ReadWriteLock mappingLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    private volatile long head;
+    private volatile long tail;
+
+    private long anchorEpochNanos;
+    private long anchorNanoTime;
+    private long lastEpochNanos;
+
+    private FrameJournal(Path path, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        anchor();
+    }
+
+    /**
+     * Opens the journal at {@code path}, keeping its contents if it was written with the same
+     * size, otherwise starting it afresh.
+     */
+    public static FrameJournal open(Path path, int sizeMb) throws IOException {
+        int capacity = Math.max(1, Math.min(MAX_SIZE_MB, sizeMb)) * 1024 * 1024;
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() > HEADER_SIZE + capacity) {
+                channel.truncate(HEADER_SIZE + capacity);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity);
+            FrameJournal journal = new FrameJournal(path, channel, buffer, capacity);
+            journal.loadHeader();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void loadHeader() {
+        long storedHead = buffer.getLong(OFFSET_HEAD);
+        long storedTail = buffer.getLong(OFFSET_TAIL);
+
+        if (buffer.getInt(OFFSET_MAGIC) == MAGIC
+                && buffer.getInt(OFFSET_VERSION) == VERSION
+                && buffer.getLong(OFFSET_CAPACITY) == capacity
+                && storedTail >= 0
+                && storedHead >= storedTail
+                && storedHead - storedTail <= capacity) {
+            head = storedHead;
+            tail = storedTail;
+            logger.info("Opened frame journal {} ({} KB in use)", path, (head - tail) / 1024);
+            return;
+        }
+
+        head = 0;
+        tail = 0;
+        buffer.putInt(OFFSET_MAGIC, MAGIC);
+        buffer.putInt(OFFSET_VERSION, VERSION);
+        buffer.putLong(OFFSET_CAPACITY, capacity);
+        writePositions();
+        logger.info("Created frame journal {} ({} MB)", path, capacity / (1024 * 1024));
+    }
+
+    /**
+     * Appends one chunk as received at {@code nanoTime} ({@link System#nanoTime()} clock).
+     * Chunks longer than 4 KB are truncated.
+     */
+    public synchronized void append(byte[] data, int offset, int length, long nanoTime) {
+        if (length <= 0 || closed) {
+            return;
+        }
+        length = Math.min(length, MAX_RECORD_BYTES);
+        int size = RECORD_HEADER_SIZE + length;
+        long epochNanos = toEpochNanos(nanoTime);
+
+        int position = physical(head);
+        int remaining = capacity - position;
+        if (remaining < size) {
+            long nextLap = head + remaining;
+            release(nextLap + size);
+            if (remaining >= 4) {
+                buffer.putInt(HEADER_SIZE + position, PAD);
+            }
+            head = nextLap;
+            position = 0;
+        } else {
+            release(head + size);
+        }
+
+        // Publish the new tail before overwriting, so a crash never leaves it on a torn record.
+        buffer.putLong(OFFSET_TAIL, tail);
+
+        int base = HEADER_SIZE + position;
+        buffer.putInt(base, length);
+        buffer.putLong(base + 4, epochNanos);
+        buffer.position(base + RECORD_HEADER_SIZE);
+        buffer.put(data, offset, length);
+
+        head += size;
+        buffer.putLong(OFFSET_HEAD, head);
+    }
+
+    /**
+     * Returns the chunks received between the two instants, inclusive, oldest first. Does not
+     * hold up {@link #append}; chunks appended while it runs are not included.
+     */
+    public List<JournalEntry> read(long fromEpochNanos, long toEpochNanos) {
+        List<JournalEntry> entries = new ArrayList<>();
+        mappingLock.readLock().lock();
+        try {
+            if (closed) {
+                return entries;
+            }
+            ByteBuffer view = buffer.duplicate();
+            long end = head;
+            long cursor = tail;
+
+            while (cursor < end) {
+                int position = physical(cursor);
+                int remaining = capacity - position;
+                int length = remaining >= 4 ? view.getInt(HEADER_SIZE + position) : PAD;
+                boolean valid = length == PAD
+                        || (length >= 0 && length <= MAX_RECORD_BYTES && RECORD_HEADER_SIZE + length <= remaining);
+                long epochNanos = 0;
+                byte[] data = null;
+                if (valid && length != PAD) {
+                    epochNanos = view.getLong(HEADER_SIZE + position + 4);
+                    if (epochNanos >= fromEpochNanos && epochNanos <= toEpochNanos) {
+                        data = new byte[length];
+                        view.position(HEADER_SIZE + position + RECORD_HEADER_SIZE);
+                        view.get(data);
+                    }
+                }
+
+                long oldest = tail;
+                if (oldest > cursor) {
+                    // Lapped by the writer: what was just read may already be overwritten.
+                    cursor = oldest;
+                    continue;
+                }
+                if (length == PAD) {
+                    cursor += remaining;
+                    continue;
+                }
+                if (!valid) {
+                    logger.warn("Corrupt frame journal record at offset {}; stopping scan", cursor);
+                    break;
+                }
+                if (epochNanos > toEpochNanos) {
+                    break;
+                }
+                if (data != null) {
+                    entries.add(new JournalEntry(epochNanos, data));
+                }
+                cursor += RECORD_HEADER_SIZE + length;
+            }
+            return entries;
+        } finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the chunks received within {@code margin} of {@code captureTime}.
+     */
+    public List<JournalEntry> around(LocalDateTime captureTime, Duration margin) {
+        long center = toEpochNanos(captureTime.atZone(ZoneId.systemDefault()));
+        return read(center - margin.toNanos(), center + margin.toNanos());
+    }
+
+    /**
+     * Returns the chunks behind a ticket. Records keep the capture time to the minute
+     * ({@code yyyy-MM-dd}, {@code HH:mm}), so the whole minute is covered plus {@code margin}
+     * on either side.
+     */
+    public List<JournalEntry> aroundCapture(String date, String time, Duration margin) {
+        ZonedDateTime minute = LocalDateTime.of(LocalDate.parse(date), LocalTime.parse(time))
+                .atZone(ZoneId.systemDefault());
+        long from = toEpochNanos(minute) - margin.toNanos();
+        long to = toEpochNanos(minute.plusMinutes(1)) + margin.toNanos();
+        return read(from, to);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getSizeMb() {
+        return capacity / (1024 * 1024);
+    }
+
+    /**
+     * Flushes and unmaps the journal, waiting for running reads to finish first.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        mappingLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.force();
+            unmap(buffer);
+            channel.close();
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+        logger.info("Closed frame journal {}", path);
+    }
+
+    /**
+     * Releases the mapping now instead of whenever the buffer is garbage collected. Uses
+     * {@code Unsafe.invokeCleaner} on Java 9 and later and the buffer's cleaner on Java 8;
+     * if neither is reachable the mapping is left to the collector.
+     */
+    private static void unmap(MappedByteBuffer mapped) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), mapped);
+            return;
+        } catch (NoSuchMethodException e) {
+            // Java 8: fall through to the buffer's own cleaner.
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Could not unmap frame journal: {}", e.toString());
+            return;
+        }
+        try {
+            Method cleanerMethod = mapped.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(mapped);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Could not unmap frame journal: {}", e.toString());
+        }
+    }
+
+    private void release(long end) {
+        while (end - tail > capacity) {
+            int position = physical(tail);
+            int remaining = capacity - position;
+            int length = remaining >= 4 ? buffer.getInt(HEADER_SIZE + position) : PAD;
+            if (length == PAD || length < 0 || RECORD_HEADER_SIZE + length > remaining) {
+                tail += remaining;
+            } else {
+                tail += RECORD_HEADER_SIZE + length;
+            }
+        }
+    }
+
+    private void writePositions() {
+        buffer.putLong(OFFSET_TAIL, tail);
+        buffer.putLong(OFFSET_HEAD, head);
+    }
+
+    private int physical(long offset) {
+        return (int) (offset % capacity);
+    }
+
+    private static long toEpochNanos(ZonedDateTime time) {
+        return TimeUnit.SECONDS.toNanos(time.toEpochSecond()) + time.getNano();
+    }
+
+    /**
+     * Maps the monotonic receive time to wall-clock nanoseconds, re-anchoring once a minute so
+     * drift and clock changes are followed. Results never go backwards.
+     */
+    private long toEpochNanos(long nanoTime) {
+        if (nanoTime - anchorNanoTime > REANCHOR_INTERVAL_NANOS) {
+            anchor();
+        }
+        long epochNanos = Math.max(anchorEpochNanos + (nanoTime - anchorNanoTime), lastEpochNanos);
+        lastEpochNanos = epochNanos;
+        return epochNanos;
+    }
+
+    private void anchor() {
+        anchorNanoTime = System.nanoTime();
+        anchorEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    }
+}
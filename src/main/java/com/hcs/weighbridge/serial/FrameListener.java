@@ -0,0 +1,17 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Receives decoded indicator frames as primitives.
+ */
+public interface FrameListener {
+
+    /**
+     * Called for every valid frame with the weight already rounded to the nearest 5 kg.
+     */
+    void onFrame(char status, int weightKg);
+
+    /**
+     * Called when a non-empty frame does not match the expected format.
+     */
+    void onInvalidFrame(FrameDecoder decoder);
+}
@@ -0,0 +1,143 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded frame log as if it came from the indicator, looping at the end.
+ * <p>
+ * Each line is either {@code <millis><TAB><frame>}, where millis is the offset from the start
+ * of the recording, or just {@code <frame>}, which is replayed 50 ms after the previous one.
+ * Blank lines and lines starting with {@code #} are skipped. The frame terminator is appended
+ * on replay, so the log must match the configured protocol.
+ */
+public class FrameReplayDevice implements WeighDevice {
+
+    private static final Logger logger = LogUtil.getLogger(FrameReplayDevice.class);
+    private static final long DEFAULT_SPACING_MS = 50;
+    private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double MIN_SPEED = 1.0;
+    private static final double MAX_SPEED = 100.0;
+
+    private final String path;
+    private final double speed;
+    private volatile boolean open;
+
+    private byte[][] frames;
+    private long[] dueOffsetsNanos;
+    private long loopLengthNanos;
+    private int index;
+    private long startNanos;
+
+    public FrameReplayDevice(String path, double speed) {
+        this.path = path;
+        this.speed = Math.max(MIN_SPEED, Math.min(MAX_SPEED, speed));
+    }
+
+    @Override
+    public String getName() {
+        return WeighDevices.REPLAY_PREFIX + path;
+    }
+
+    @Override
+    public boolean open() {
+        try {
+            load();
+        } catch (IOException e) {
+            logger.error("Cannot read replay file {}: {}", path, e.getMessage());
+            return false;
+        }
+
+        if (frames.length == 0) {
+            logger.error("Replay file {} contains no frames", path);
+            return false;
+        }
+
+        logger.info("Replaying {} frames from {} at {}x", frames.length, path, speed);
+        index = 0;
+        startNanos = System.nanoTime();
+        open = true;
+        return true;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public int read(byte[] buffer, int length) {
+        if (!open) {
+            return -1;
+        }
+
+        long wait = startNanos + dueOffsetsNanos[index] - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(Math.min(wait, MAX_WAIT_NANOS));
+            if (wait > MAX_WAIT_NANOS) {
+                return 0;
+            }
+        }
+
+        byte[] frame = frames[index];
+        int count = Math.min(frame.length, length);
+        System.arraycopy(frame, 0, buffer, 0, count);
+
+        if (++index == frames.length) {
+            index = 0;
+            startNanos += loopLengthNanos;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private void load() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(path), StandardCharsets.ISO_8859_1);
+        List<byte[]> loaded = new ArrayList<>(lines.size());
+        long[] offsets = new long[lines.size()];
+        long offsetMs = -DEFAULT_SPACING_MS;
+
+        for (String line : lines) {
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String frame = line;
+            int tab = line.indexOf('\t');
+            if (tab > 0) {
+                try {
+                    offsetMs = Long.parseLong(line.substring(0, tab).trim());
+                    frame = line.substring(tab + 1);
+                } catch (NumberFormatException e) {
+                    offsetMs += DEFAULT_SPACING_MS;
+                }
+            } else {
+                offsetMs += DEFAULT_SPACING_MS;
+            }
+
+            offsets[loaded.size()] = (long) (TimeUnit.MILLISECONDS.toNanos(Math.max(0, offsetMs)) / speed);
+            loaded.add((frame + "\r").getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        frames = loaded.toArray(new byte[0][]);
+        dueOffsetsNanos = new long[frames.length];
+        System.arraycopy(offsets, 0, dueOffsetsNanos, 0, frames.length);
+        loopLengthNanos = frames.length == 0
+                ? 0
+                : dueOffsetsNanos[frames.length - 1]
+                        + (long) (TimeUnit.MILLISECONDS.toNanos(DEFAULT_SPACING_MS) / speed);
+    }
+}
@@ -0,0 +1,81 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Flags a reader's weight as stale when the indicator stops sending, even though the port
+ * may still be open.
+ * <p>
+ * Checks run on the {@link SerialDispatcher} a few times a second and only read the last frame
+ * time kept by {@link SerialMetrics}, so the reader's hot path is untouched. Each stale period
+ * is reported to the metrics when it starts and when frames resume.
+ */
+public class FrameWatchdog {
+
+    private static final Logger logger = LogUtil.getLogger(FrameWatchdog.class);
+
+    private static final long CHECK_INTERVAL_MS = 250;
+
+    private final String name;
+    private final SerialMetrics metrics;
+    private final long staleAfterNanos;
+
+    private ScheduledFuture<?> task;
+    private long lastSeenNanos;
+    private volatile boolean stale;
+
+    public FrameWatchdog(String name, SerialMetrics metrics, long staleAfterMs) {
+        this.name = name;
+        this.metrics = metrics;
+        this.staleAfterNanos = staleAfterMs * 1_000_000L;
+    }
+
+    public synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        lastSeenNanos = System.nanoTime();
+        task = SerialDispatcher.scheduleAtFixedRate(this::check, CHECK_INTERVAL_MS);
+    }
+
+    private synchronized void check() {
+        long now = System.nanoTime();
+        long lastFrame = metrics.getLastFrameNanos();
+        if (lastFrame != 0 && lastFrame - lastSeenNanos > 0) {
+            lastSeenNanos = lastFrame;
+        }
+
+        boolean silent = now - lastSeenNanos > staleAfterNanos;
+        if (silent && !stale) {
+            stale = true;
+            metrics.onStale(lastSeenNanos);
+            logger.warn("No frames from {} for {} ms; weight marked STALE",
+                    name, (now - lastSeenNanos) / 1_000_000L);
+        } else if (!silent && stale) {
+            stale = false;
+            long gapMs = metrics.onStaleCleared(lastSeenNanos) / 1_000_000L;
+            logger.info("Frames from {} resumed after {} ms without data", name, gapMs);
+        }
+    }
+
+    /**
+     * Returns {@code true} while no frame has arrived for longer than the configured gap.
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        if (stale) {
+            stale = false;
+            metrics.onStaleCleared(System.nanoTime());
+        }
+    }
+}
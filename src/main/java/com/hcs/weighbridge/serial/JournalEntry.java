@@ -0,0 +1,54 @@
+package com.hcs.weighbridge.serial;
+
+import java.time.Instant;
+
+/**
+ * One chunk of raw indicator bytes read back from a {@link FrameJournal}.
+ */
+public class JournalEntry {
+
+    private final long epochNanos;
+    private final byte[] data;
+
+    public JournalEntry(long epochNanos, byte[] data) {
+        this.epochNanos = epochNanos;
+        this.data = data;
+    }
+
+    public long getEpochNanos() {
+        return epochNanos;
+    }
+
+    public Instant getInstant() {
+        return Instant.ofEpochSecond(0, epochNanos);
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns the bytes as text with control characters escaped, e.g. {@code P+012340\r}.
+     */
+    public String getText() {
+        StringBuilder sb = new StringBuilder(data.length + 4);
+        for (byte b : data) {
+            int c = b & 0xFF;
+            if (c == '\r') {
+                sb.append("\\r");
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c < 0x20 || c >= 0x7F) {
+                sb.append(String.format("\\x%02X", c));
+            } else {
+                sb.append((char) c);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getInstant() + " " + getText();
+    }
+}
@@ -0,0 +1,83 @@
+package com.hcs.weighbridge.serial;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations with power-of-two microsecond buckets.
+ * <p>
+ * Bucket {@code i} counts durations below {@code 2^i} us (bucket 0 is under 1 us), so
+ * percentiles are reported as the bucket's upper bound. Recording is a couple of atomic
+ * increments and never allocates.
+ */
+public class LatencyHistogram {
+
+    public static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        total.incrementAndGet();
+
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the exclusive upper bound of {@code bucket} in microseconds.
+     */
+    public static long bucketUpperMicros(int bucket) {
+        return 1L << bucket;
+    }
+
+    /**
+     * Returns the upper bound, in microseconds, under which {@code quantile} of the recorded
+     * durations fall; 0 when empty.
+     */
+    public long percentileMicros(double quantile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(count * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return bucketUpperMicros(i);
+            }
+        }
+        return bucketUpperMicros(BUCKETS - 1);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        maxNanos.set(0);
+    }
+}
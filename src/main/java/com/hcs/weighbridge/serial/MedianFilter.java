@@ -0,0 +1,64 @@
+package com.hcs.weighbridge.serial;
+
+import java.util.Arrays;
+
+/**
+ * Moving median over the last {@code window} samples. Rejects single-frame spikes without the
+ * lag of an average.
+ * <p>
+ * Samples are kept both in arrival order and in a sorted array; each new sample replaces the
+ * oldest with one binary search and one short array copy, so the cost per sample is bounded by
+ * the window size and nothing is allocated.
+ */
+public class MedianFilter implements WeightFilter {
+
+    public static final int MAX_WINDOW = 31;
+
+    private final int[] ring;
+    private final int[] sorted;
+    private int count;
+    private int next;
+
+    /**
+     * @param window number of samples, clamped to 1..{@link #MAX_WINDOW}; an even size is
+     *               raised to the next odd one so the median is always a real sample
+     */
+    public MedianFilter(int window) {
+        int size = Math.max(1, Math.min(MAX_WINDOW, window)) | 1;
+        ring = new int[size];
+        sorted = new int[size];
+    }
+
+    @Override
+    public int apply(int weightKg) {
+        if (count == ring.length) {
+            remove(ring[next]);
+        }
+        ring[next] = weightKg;
+        next = next + 1 == ring.length ? 0 : next + 1;
+        insert(weightKg);
+        return sorted[(count - 1) / 2];
+    }
+
+    private void remove(int value) {
+        int index = Arrays.binarySearch(sorted, 0, count, value);
+        System.arraycopy(sorted, index + 1, sorted, index, count - index - 1);
+        count--;
+    }
+
+    private void insert(int value) {
+        int index = Arrays.binarySearch(sorted, 0, count, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        System.arraycopy(sorted, index, sorted, index + 1, count - index);
+        sorted[index] = value;
+        count++;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        next = 0;
+    }
+}
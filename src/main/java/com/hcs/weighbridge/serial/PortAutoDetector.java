@@ -0,0 +1,241 @@
+package com.hcs.weighbridge.serial;
+
+import com.fazecast.jSerialComm.SerialPort;
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds which port an indicator is on, and with which line settings and protocol, by
+ * listening to every port at once.
+ * <p>
+ * Each port gets its own thread and is opened once; the candidate baud rates and framings
+ * are then tried in turn by reconfiguring the open port. The bytes of each attempt are fed
+ * to a decoder of every registered {@link ScaleProtocol} and the combination with the
+ * cleanest stream of valid frames wins. Silent ports are dropped after the first listen, a
+ * combination producing only garbage is abandoned early, and a clean run ends the port's
+ * search, so a terminal is usually identified within a few seconds.
+ */
+public class PortAutoDetector {
+
+    private static final Logger logger = LogUtil.getLogger(PortAutoDetector.class);
+
+    /**
+     * {baud, data bits, parity}, most common first. All use one stop bit.
+     */
+    private static final int[][] CANDIDATES = {
+            {2400, 7, SerialPort.EVEN_PARITY},
+            {9600, 8, SerialPort.NO_PARITY},
+            {9600, 7, SerialPort.EVEN_PARITY},
+            {4800, 7, SerialPort.EVEN_PARITY},
+            {4800, 8, SerialPort.NO_PARITY},
+            {2400, 8, SerialPort.NO_PARITY},
+            {1200, 7, SerialPort.EVEN_PARITY},
+            {19200, 8, SerialPort.NO_PARITY},
+            {1200, 8, SerialPort.NO_PARITY},
+            {19200, 7, SerialPort.EVEN_PARITY},
+            {9600, 7, SerialPort.ODD_PARITY},
+            {4800, 7, SerialPort.ODD_PARITY},
+            {2400, 7, SerialPort.ODD_PARITY},
+            {1200, 7, SerialPort.ODD_PARITY},
+            {19200, 7, SerialPort.ODD_PARITY},
+    };
+
+    private static final int MAX_THREADS = 16;
+    private static final long FIRST_LISTEN_MS = 1500;
+    private static final long LISTEN_MS = 600;
+    private static final long GARBAGE_CHECK_MS = 300;
+    private static final int READ_TIMEOUT_MS = 100;
+    private static final int MIN_VALID_FRAMES = 2;
+    private static final int CONFIDENT_FRAMES = 5;
+    private static final long OVERALL_TIMEOUT_MS = 30_000;
+
+    /**
+     * Probes {@code portNames} concurrently and returns the best match of each port that
+     * produced valid frames, best first. Ports that cannot be opened, typically because a
+     * running reader holds them, are skipped.
+     */
+    public List<PortProbeResult> detect(List<String> portNames) throws InterruptedException {
+        List<PortProbeResult> results = new ArrayList<>();
+        if (portNames.isEmpty()) {
+            return results;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(MAX_THREADS, portNames.size()), r -> {
+            Thread thread = new Thread(r, "Port-Probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<PortProbeResult>> tasks = new ArrayList<>();
+            for (String name : portNames) {
+                tasks.add(() -> probe(name));
+            }
+            for (Future<PortProbeResult> future : pool.invokeAll(tasks, OVERALL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                try {
+                    PortProbeResult result = future.get();
+                    if (result != null) {
+                        results.add(result);
+                    }
+                } catch (CancellationException e) {
+                    logger.warn("Port probe timed out");
+                } catch (ExecutionException e) {
+                    logger.error("Port probe failed: {}", e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        results.sort(Comparator.comparingInt(PortProbeResult::getScore).reversed());
+        logger.info("Serial auto-detect found {}", results.isEmpty() ? "no indicator" : results);
+        return results;
+    }
+
+    private PortProbeResult probe(String portName) {
+        SerialPort port = SerialPort.getCommPort(portName);
+        int[] first = CANDIDATES[0];
+        port.setComPortParameters(first[0], first[1], SerialPort.ONE_STOP_BIT, first[2]);
+        port.setComPortTimeouts(SerialPort.TIMEOUT_READ_SEMI_BLOCKING, READ_TIMEOUT_MS, 0);
+        if (!port.openPort()) {
+            logger.info("Auto-detect skipped {}: port is busy or unavailable", portName);
+            return null;
+        }
+
+        try {
+            PortProbeResult best = null;
+            byte[] buffer = new byte[256];
+            for (int i = 0; i < CANDIDATES.length && !Thread.currentThread().isInterrupted(); i++) {
+                int[] candidate = CANDIDATES[i];
+                port.setComPortParameters(candidate[0], candidate[1], SerialPort.ONE_STOP_BIT, candidate[2]);
+                port.flushIOBuffers();
+
+                Attempt attempt = new Attempt();
+                long bytes = listen(port, buffer, attempt, i == 0 ? FIRST_LISTEN_MS : LISTEN_MS);
+                if (i == 0 && bytes == 0) {
+                    logger.debug("Auto-detect: {} is silent", portName);
+                    return null;
+                }
+
+                ProtocolCounter winner = attempt.best();
+                if (winner == null || winner.valid < MIN_VALID_FRAMES) {
+                    continue;
+                }
+                PortProbeResult result = new PortProbeResult(portName, candidate[0], candidate[1], candidate[2],
+                        winner.protocol.getName(), winner.valid, winner.invalid);
+                logger.debug("Auto-detect candidate {}", result);
+                if (best == null || result.getScore() > best.getScore()) {
+                    best = result;
+                }
+                if (winner.valid >= CONFIDENT_FRAMES && winner.invalid == 0) {
+                    break;
+                }
+            }
+            return best;
+        } finally {
+            port.closePort();
+        }
+    }
+
+    /**
+     * Reads for up to {@code listenMs}, stopping early once it is clear the stream is
+     * garbage at this setting. Returns the number of bytes read.
+     */
+    private long listen(SerialPort port, byte[] buffer, Attempt attempt, long listenMs) {
+        long start = System.nanoTime();
+        long deadline = start + listenMs * 1_000_000L;
+        long garbageCheck = start + GARBAGE_CHECK_MS * 1_000_000L;
+        long bytes = 0;
+
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            int n = port.readBytes(buffer, buffer.length);
+            if (n < 0) {
+                break;
+            }
+            if (n > 0) {
+                bytes += n;
+                attempt.accept(buffer, n);
+            }
+            if (System.nanoTime() > garbageCheck && attempt.isGarbage()) {
+                break;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * One decoder per registered protocol, all fed the same bytes.
+     */
+    private static final class Attempt {
+
+        private final List<ProtocolCounter> counters = new ArrayList<>();
+
+        Attempt() {
+            for (ScaleProtocol protocol : ScaleProtocols.all()) {
+                counters.add(new ProtocolCounter(protocol));
+            }
+        }
+
+        void accept(byte[] buffer, int length) {
+            for (ProtocolCounter counter : counters) {
+                counter.decoder.accept(buffer, 0, length);
+            }
+        }
+
+        boolean isGarbage() {
+            for (ProtocolCounter counter : counters) {
+                if (counter.valid > 0 || counter.invalid < 3) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        ProtocolCounter best() {
+            ProtocolCounter best = null;
+            for (ProtocolCounter counter : counters) {
+                if (best == null || counter.score() > best.score()) {
+                    best = counter;
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final class ProtocolCounter implements FrameListener {
+
+        private final ScaleProtocol protocol;
+        private final FrameDecoder decoder;
+        private int valid;
+        private int invalid;
+
+        ProtocolCounter(ScaleProtocol protocol) {
+            this.protocol = protocol;
+            this.decoder = protocol.newDecoder(this);
+        }
+
+        int score() {
+            return 2 * valid - invalid;
+        }
+
+        @Override
+        public void onFrame(char status, int weightKg) {
+            valid++;
+        }
+
+        @Override
+        public void onInvalidFrame(FrameDecoder source) {
+            invalid++;
+        }
+    }
+}
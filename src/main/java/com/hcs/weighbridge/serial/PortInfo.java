@@ -0,0 +1,93 @@
+package com.hcs.weighbridge.serial;
+
+import com.fazecast.jSerialComm.SerialPort;
+
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of what the OS reports about a serial port. USB adapters are recognised
+ * by vendor/product ID and serial number, so they can be found again after being re-plugged
+ * under a different COM name.
+ */
+public final class PortInfo {
+
+    private final String systemName;
+    private final String description;
+    private final int vendorId;
+    private final int productId;
+    private final String serialNumber;
+
+    public PortInfo(String systemName, String description, int vendorId, int productId, String serialNumber) {
+        this.systemName = systemName;
+        this.description = description;
+        this.vendorId = vendorId;
+        this.productId = productId;
+        this.serialNumber = serialNumber;
+    }
+
+    public static PortInfo of(SerialPort port) {
+        return new PortInfo(port.getSystemPortName(), port.getPortDescription(),
+                port.getVendorID(), port.getProductID(), port.getSerialNumber());
+    }
+
+    public String getSystemName() {
+        return systemName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isUsb() {
+        return vendorId > 0 && productId > 0;
+    }
+
+    public boolean hasSerialNumber() {
+        return serialNumber != null && !serialNumber.isEmpty() && !"Unknown".equalsIgnoreCase(serialNumber);
+    }
+
+    /**
+     * Returns true when {@code other} is the same USB model (and unit, when both report a
+     * serial number).
+     */
+    public boolean sameDevice(PortInfo other) {
+        if (!isUsb() || vendorId != other.vendorId || productId != other.productId) {
+            return false;
+        }
+        return !hasSerialNumber() || !other.hasSerialNumber() || serialNumber.equals(other.serialNumber);
+    }
+
+    public boolean sameUnit(PortInfo other) {
+        return sameDevice(other) && hasSerialNumber() && other.hasSerialNumber();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PortInfo)) {
+            return false;
+        }
+        PortInfo other = (PortInfo) o;
+        return vendorId == other.vendorId
+                && productId == other.productId
+                && Objects.equals(systemName, other.systemName)
+                && Objects.equals(description, other.description)
+                && Objects.equals(serialNumber, other.serialNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(systemName, description, vendorId, productId, serialNumber);
+    }
+
+    @Override
+    public String toString() {
+        if (!isUsb()) {
+            return systemName;
+        }
+        return String.format("%s (%04X:%04X%s)", systemName, vendorId, productId,
+                hasSerialNumber() ? " " + serialNumber : "");
+    }
+}
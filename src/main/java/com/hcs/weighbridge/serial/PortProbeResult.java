@@ -0,0 +1,84 @@
+package com.hcs.weighbridge.serial;
+
+import com.fazecast.jSerialComm.SerialPort;
+import com.hcs.weighbridge.model.SerialConfig;
+
+/**
+ * Best line settings and protocol found on one port by {@link PortAutoDetector}.
+ */
+public final class PortProbeResult {
+
+    private final String portName;
+    private final int baudRate;
+    private final int dataBits;
+    private final int parity;
+    private final String protocolName;
+    private final int validFrames;
+    private final int invalidFrames;
+
+    PortProbeResult(String portName, int baudRate, int dataBits, int parity,
+                    String protocolName, int validFrames, int invalidFrames) {
+        this.portName = portName;
+        this.baudRate = baudRate;
+        this.dataBits = dataBits;
+        this.parity = parity;
+        this.protocolName = protocolName;
+        this.validFrames = validFrames;
+        this.invalidFrames = invalidFrames;
+    }
+
+    /**
+     * Valid frames count double and invalid ones against, so a clean stream beats a longer
+     * but noisy one.
+     */
+    public int getScore() {
+        return 2 * validFrames - invalidFrames;
+    }
+
+    /**
+     * Copies the detected port, line settings and protocol into {@code cfg}.
+     */
+    public void applyTo(SerialConfig cfg) {
+        cfg.setPortName(portName);
+        cfg.setBaudRate(baudRate);
+        cfg.setDataBits(dataBits);
+        cfg.setStopBits(SerialPort.ONE_STOP_BIT);
+        cfg.setParity(parity);
+        cfg.setProtocolName(protocolName);
+    }
+
+    public String getPortName() {
+        return portName;
+    }
+
+    public int getBaudRate() {
+        return baudRate;
+    }
+
+    public int getDataBits() {
+        return dataBits;
+    }
+
+    public int getParity() {
+        return parity;
+    }
+
+    public String getProtocolName() {
+        return protocolName;
+    }
+
+    public int getValidFrames() {
+        return validFrames;
+    }
+
+    public int getInvalidFrames() {
+        return invalidFrames;
+    }
+
+    @Override
+    public String toString() {
+        char parityChar = parity == SerialPort.EVEN_PARITY ? 'E' : parity == SerialPort.ODD_PARITY ? 'O' : 'N';
+        return portName + " " + baudRate + " " + dataBits + parityChar + "1 " + protocolName
+                + " (" + validFrames + " valid / " + invalidFrames + " invalid)";
+    }
+}
@@ -0,0 +1,182 @@
+package com.hcs.weighbridge.serial;
+
+import com.fazecast.jSerialComm.SerialPort;
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Background snapshot of {@link SerialPort#getCommPorts()}.
+ * <p>
+ * Enumerating ports is slow on some systems, so it happens on one daemon thread: every 2 s
+ * normally and every 100 ms while a reader is waiting for its port, which lets a re-plugged
+ * adapter be reopened within about 100 ms. Callers read the cached list for free.
+ */
+public final class PortWatcher {
+
+    private static final Logger logger = LogUtil.getLogger(PortWatcher.class);
+
+    private static final long FAST_POLL_MS = 100;
+    private static final long IDLE_POLL_MS = 2000;
+
+    private static final Object lock = new Object();
+    private static final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private static volatile List<PortInfo> ports = Collections.emptyList();
+    private static long version;
+    private static int waiters;
+    private static Thread thread;
+
+    private PortWatcher() {
+    }
+
+    /**
+     * Returns the latest snapshot, refreshing it synchronously on first use.
+     */
+    public static List<PortInfo> getPorts() {
+        ensureStarted();
+        return ports;
+    }
+
+    /**
+     * Finds where {@code identity} is attached now: the same unit by serial number, else the
+     * only port of the same USB model, else a port with the same system name.
+     */
+    public static PortInfo find(PortInfo identity) {
+        List<PortInfo> current = getPorts();
+        PortInfo sameModel = null;
+        int sameModelCount = 0;
+
+        for (PortInfo port : current) {
+            if (identity.sameUnit(port)) {
+                return port;
+            }
+            if (identity.sameDevice(port)) {
+                sameModel = port;
+                sameModelCount++;
+            }
+        }
+        if (sameModelCount == 1) {
+            return sameModel;
+        }
+        for (PortInfo port : current) {
+            if (port.getSystemName().equals(identity.getSystemName())) {
+                return port;
+            }
+        }
+        return null;
+    }
+
+    public static boolean isPresent(String systemName) {
+        for (PortInfo port : getPorts()) {
+            if (port.getSystemName().equalsIgnoreCase(systemName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static long getVersion() {
+        synchronized (lock) {
+            return version;
+        }
+    }
+
+    /**
+     * Blocks until the port list differs from {@code seenVersion} or {@code timeoutMs}
+     * elapses, polling fast meanwhile. Returns true if the list changed.
+     */
+    public static boolean awaitChange(long seenVersion, long timeoutMs) throws InterruptedException {
+        ensureStarted();
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (lock) {
+            waiters++;
+            lock.notifyAll();
+            try {
+                while (version == seenVersion) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    lock.wait(remaining);
+                }
+                return true;
+            } finally {
+                waiters--;
+            }
+        }
+    }
+
+    /**
+     * Runs {@code listener} on the watcher thread whenever the port list changes. Keeps the
+     * watcher polling fast until removed.
+     */
+    public static void addListener(Runnable listener) {
+        ensureStarted();
+        listeners.add(listener);
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    public static void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    private static void ensureStarted() {
+        synchronized (lock) {
+            if (thread != null) {
+                return;
+            }
+            refresh();
+            thread = new Thread(PortWatcher::run, "Port-Watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private static void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                synchronized (lock) {
+                    lock.wait(waiters > 0 || !listeners.isEmpty() ? FAST_POLL_MS : IDLE_POLL_MS);
+                }
+                if (refresh()) {
+                    for (Runnable listener : listeners) {
+                        try {
+                            listener.run();
+                        } catch (RuntimeException e) {
+                            logger.error("Port listener failed: {}", e.getMessage(), e);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Failed to enumerate serial ports: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static boolean refresh() {
+        SerialPort[] found = SerialPort.getCommPorts();
+        List<PortInfo> snapshot = new ArrayList<>(found.length);
+        for (SerialPort port : found) {
+            snapshot.add(PortInfo.of(port));
+        }
+        if (snapshot.equals(ports)) {
+            return false;
+        }
+
+        logger.info("Serial ports changed: {}", snapshot);
+        synchronized (lock) {
+            ports = Collections.unmodifiableList(snapshot);
+            version++;
+            lock.notifyAll();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,255 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.model.CaptureStats;
+import com.hcs.weighbridge.model.FilterConfig;
+import com.hcs.weighbridge.model.SerialConfig;
+import com.hcs.weighbridge.model.StabilityConfig;
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One weighbridge deck: its reader together with the live weight, stability state, metrics
+ * and frame journal that belong to it.
+ * <p>
+ * The bus and metrics outlive reader restarts, so a settings change does not lose the lane's
+ * counters or leave subscribers pointing at a stale bus.
+ * <p>
+ * Stopping a reader waits up to {@value #STOP_TIMEOUT_MS} ms for its port to be released, so
+ * restarts and closes run on the lane's own control thread, in the order they were requested,
+ * and never block the FX thread.
+ */
+public class ScaleLane {
+
+    private static final Logger logger = LogUtil.getLogger(ScaleLane.class);
+
+    private static final long STOP_TIMEOUT_MS = 2000;
+
+    private final int index;
+    private final ExecutorService control;
+    private final WeightBus bus = new WeightBus();
+    private final SerialMetrics metrics = new SerialMetrics();
+
+    private volatile SerialConfig config;
+    private volatile StabilityDetector stability;
+    private volatile CaptureStatsTracker statsTracker;
+    private volatile WeighReader reader;
+    private volatile FrameJournal journal;
+
+    public ScaleLane(int index) {
+        this.index = index;
+        this.control = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ScaleLane-" + (index + 1));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the current reader, if any, and starts a new one with {@code cfg}. Returns at
+     * once; the restart runs on the control thread. A lane without a port stays idle.
+     */
+    public void restart(SerialConfig cfg, StabilityConfig stabilityConfig, FilterConfig filterConfig,
+                        long staleAfterMs, boolean journalEnabled, int journalSizeMb) {
+        control.execute(() -> restartNow(cfg, stabilityConfig, filterConfig, staleAfterMs, journalEnabled, journalSizeMb));
+    }
+
+    private synchronized void restartNow(SerialConfig cfg, StabilityConfig stabilityConfig, FilterConfig filterConfig,
+                                         long staleAfterMs, boolean journalEnabled, int journalSizeMb) {
+        stopReader();
+        this.config = cfg;
+        stability = stabilityConfig.isSoftwareEnabled() ? new StabilityDetector(stabilityConfig) : null;
+        statsTracker = new CaptureStatsTracker(stabilityConfig.getWindowMs(), stabilityConfig.getToleranceKg());
+
+        if (cfg.getPortName() == null || cfg.getPortName().trim().isEmpty()) {
+            logger.warn("{} has no port configured; lane stays idle", getName());
+            return;
+        }
+
+        WeighReader newReader = new WeighReader(cfg, bus, stability);
+        newReader.setJournal(openJournal(journalEnabled, journalSizeMb));
+        newReader.setMetrics(metrics);
+        newReader.setFilter(WeightFilters.create(filterConfig));
+        newReader.setStaleAfterMs(staleAfterMs);
+        newReader.setStatsTracker(statsTracker);
+        reader = newReader;
+        newReader.launch();
+
+        logger.info("{} started: port={}, baud={}, mode={}, filter={}",
+                getName(), cfg.getPortName(), cfg.getBaudRate(), cfg.getIngestMode(), filterConfig.getMode());
+    }
+
+    /**
+     * Stops the reader and waits until its port has been released, e.g. so it can be probed.
+     * Blocks for up to {@value #STOP_TIMEOUT_MS} ms; not for the FX thread.
+     */
+    public void stop() {
+        try {
+            control.submit(this::stopNow).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Failed to stop {}: {}", getName(), e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Stops the reader in the background and returns at once. A later {@link #restart} runs
+     * after the stop, so the lane can be started again, e.g. after the next login.
+     */
+    public void stopLater() {
+        control.execute(this::stopNow);
+    }
+
+    /**
+     * Stops the reader and closes the journal in the background; the lane cannot be
+     * restarted afterwards. Use {@link #awaitClosed(long)} to wait for it.
+     */
+    public void close() {
+        control.execute(this::closeNow);
+        control.shutdown();
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for {@link #close()} to finish and returns whether it did.
+     */
+    public boolean awaitClosed(long timeoutMs) throws InterruptedException {
+        return control.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopNow() {
+        stopReader();
+    }
+
+    private synchronized void closeNow() {
+        stopReader();
+        closeJournal();
+    }
+
+    private void stopReader() {
+        WeighReader current = reader;
+        reader = null;
+        if (current != null) {
+            current.stop();
+            try {
+                current.awaitTermination(STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the lane's journal, opening it on first use or when its size changed. Journal
+     * failures only disable journaling; weighing carries on.
+     */
+    private FrameJournal openJournal(boolean enabled, int sizeMb) {
+        if (!enabled) {
+            closeJournal();
+            return null;
+        }
+        if (journal != null && journal.getSizeMb() == sizeMb) {
+            return journal;
+        }
+        closeJournal();
+
+        try {
+            journal = FrameJournal.open(journalPath(index), sizeMb);
+        } catch (IOException e) {
+            logger.error("Failed to open frame journal for {}, raw frames will not be recorded: {}",
+                    getName(), e.getMessage(), e);
+        }
+        return journal;
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close frame journal: {}", e.getMessage());
+        }
+        journal = null;
+    }
+
+    /**
+     * The first lane keeps the original journal file; later lanes get numbered ones.
+     */
+    public static Path journalPath(int index) {
+        if (index == 0) {
+            return Paths.get(FrameJournal.DEFAULT_PATH);
+        }
+        return Paths.get(FrameJournal.DEFAULT_PATH.replace(".journal", "-" + (index + 1) + ".journal"));
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return "Scale " + (index + 1);
+    }
+
+    /**
+     * Returns the lane's weight bus. It outlives reader restarts, so subscribers stay valid.
+     */
+    public WeightBus getBus() {
+        return bus;
+    }
+
+    public SerialMetrics getMetrics() {
+        return metrics;
+    }
+
+    public SerialConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the software stability detector, or {@code null} when the indicator's status
+     * is trusted instead.
+     */
+    public StabilityDetector getStability() {
+        return stability;
+    }
+
+    /**
+     * Returns statistics of the raw samples in the last stability window, or {@code null}
+     * when none have arrived yet.
+     */
+    public CaptureStats getCaptureStats() {
+        CaptureStatsTracker tracker = statsTracker;
+        return tracker != null ? tracker.snapshot() : null;
+    }
+
+    /**
+     * Returns {@code true} when the lane's weight cannot be trusted as current: the indicator
+     * has gone silent, or no reader is running.
+     */
+    public boolean isStale() {
+        WeighReader current = reader;
+        return current == null || current.isStale();
+    }
+
+    public WeighReader getReader() {
+        return reader;
+    }
+
+    public FrameJournal getJournal() {
+        return journal;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
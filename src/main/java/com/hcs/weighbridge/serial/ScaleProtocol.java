@@ -0,0 +1,28 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Continuous-output format of an indicator brand.
+ * <p>
+ * Implementations are discovered with {@link java.util.ServiceLoader} (see
+ * {@code META-INF/services/com.hcs.weighbridge.serial.ScaleProtocol}) and selected per port
+ * through the {@code scale_protocol} key in {@code app_config}. They need a public no-arg
+ * constructor.
+ */
+public interface ScaleProtocol {
+
+    /**
+     * Unique name stored in the configuration, e.g. {@code STANDARD}.
+     */
+    String getName();
+
+    /**
+     * Byte sequence that ends a frame. Used to size data events in EVENT ingest mode; the
+     * decoder itself is stream based and does not rely on event boundaries.
+     */
+    byte[] getFrameDelimiter();
+
+    /**
+     * Creates a new decoder reporting to {@code listener}. Called once per reader.
+     */
+    FrameDecoder newDecoder(FrameListener listener);
+}
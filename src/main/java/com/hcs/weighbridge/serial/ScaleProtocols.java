@@ -0,0 +1,62 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the {@link ScaleProtocol} implementations found on the classpath.
+ */
+public final class ScaleProtocols {
+
+    private static final Logger logger = LogUtil.getLogger(ScaleProtocols.class);
+    private static Map<String, ScaleProtocol> protocols;
+
+    private ScaleProtocols() {
+    }
+
+    private static synchronized Map<String, ScaleProtocol> load() {
+        if (protocols == null) {
+            Map<String, ScaleProtocol> found = new LinkedHashMap<>();
+            for (ScaleProtocol protocol : ServiceLoader.load(ScaleProtocol.class)) {
+                found.put(protocol.getName(), protocol);
+                logger.debug("Registered scale protocol: {}", protocol.getName());
+            }
+            if (!found.containsKey(StandardProtocol.NAME)) {
+                found.put(StandardProtocol.NAME, new StandardProtocol());
+            }
+            protocols = Collections.unmodifiableMap(found);
+        }
+        return protocols;
+    }
+
+    /**
+     * Returns the protocol registered under {@code name}, falling back to
+     * {@link StandardProtocol} when the name is empty or unknown.
+     */
+    public static ScaleProtocol forName(String name) {
+        Map<String, ScaleProtocol> all = load();
+        ScaleProtocol protocol = name != null ? all.get(name.trim().toUpperCase()) : null;
+        if (protocol == null) {
+            if (name != null && !name.trim().isEmpty()) {
+                logger.warn("Unknown scale protocol '{}', using {}", name, StandardProtocol.NAME);
+            }
+            return all.get(StandardProtocol.NAME);
+        }
+        return protocol;
+    }
+
+    public static List<String> names() {
+        return new ArrayList<>(load().keySet());
+    }
+
+    public static List<ScaleProtocol> all() {
+        return new ArrayList<>(load().values());
+    }
+}
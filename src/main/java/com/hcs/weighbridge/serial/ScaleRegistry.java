@@ -0,0 +1,86 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the {@link ScaleLane}s served by this terminal.
+ * <p>
+ * Lanes are cheap when idle: event-driven readers share the {@link SerialDispatcher} thread,
+ * and the UI only renders the lane the operator is looking at.
+ */
+public class ScaleRegistry {
+
+    private static final Logger logger = LogUtil.getLogger(ScaleRegistry.class);
+
+    public static final int MAX_LANES = 4;
+    private static final long CLOSE_TIMEOUT_MS = 3000;
+
+    private final List<ScaleLane> lanes = new ArrayList<>();
+
+    /**
+     * Grows or shrinks the registry to {@code count} lanes, closing the removed ones. Returns
+     * the lanes that were added; they still have to be started.
+     */
+    public synchronized List<ScaleLane> resize(int count) {
+        int target = Math.max(1, Math.min(MAX_LANES, count));
+        List<ScaleLane> added = new ArrayList<>();
+
+        while (lanes.size() > target) {
+            ScaleLane removed = lanes.remove(lanes.size() - 1);
+            removed.close();
+            logger.info("Removed {}", removed.getName());
+        }
+        while (lanes.size() < target) {
+            ScaleLane lane = new ScaleLane(lanes.size());
+            lanes.add(lane);
+            added.add(lane);
+            logger.info("Added {}", lane.getName());
+        }
+        return added;
+    }
+
+    public synchronized ScaleLane getLane(int index) {
+        return lanes.get(index);
+    }
+
+    public synchronized List<ScaleLane> getLanes() {
+        return Collections.unmodifiableList(new ArrayList<>(lanes));
+    }
+
+    public synchronized int size() {
+        return lanes.size();
+    }
+
+    /**
+     * Stops every lane's reader in the background and returns at once, so it is safe on the
+     * FX thread. The lanes stay registered and can be restarted.
+     */
+    public synchronized void stopAll() {
+        for (ScaleLane lane : lanes) {
+            lane.stopLater();
+        }
+    }
+
+    /**
+     * Closes every lane and waits for their ports and journals to be released, as on exit.
+     */
+    public synchronized void closeAll() {
+        for (ScaleLane lane : lanes) {
+            lane.close();
+        }
+        try {
+            for (ScaleLane lane : lanes) {
+                if (!lane.awaitClosed(CLOSE_TIMEOUT_MS)) {
+                    logger.warn("{} did not close within {} ms", lane.getName(), CLOSE_TIMEOUT_MS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single shared thread that decodes frames and handles port (re)opening for every
+ * event-driven {@link WeighReader}, so serving more ports does not add more threads.
+ */
+public final class SerialDispatcher {
+
+    private static final Logger logger = LogUtil.getLogger(SerialDispatcher.class);
+
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Serial-Dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SerialDispatcher() {
+    }
+
+    public static void execute(Runnable task) {
+        executor.execute(() -> runSafely(task));
+    }
+
+    public static Future<?> submit(Runnable task) {
+        return executor.submit(() -> runSafely(task));
+    }
+
+    public static ScheduledFuture<?> schedule(Runnable task, long delayMs) {
+        return executor.schedule(() -> runSafely(task), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long periodMs) {
+        return executor.scheduleAtFixedRate(() -> runSafely(task), periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            // Never let one port's failure kill the thread shared by all ports.
+            logger.error("Serial dispatcher task failed: {}", e.getMessage(), e);
+        }
+    }
+}
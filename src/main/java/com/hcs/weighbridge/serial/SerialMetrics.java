@@ -0,0 +1,147 @@
+package com.hcs.weighbridge.serial;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for the serial pipeline, shared by the reader and the diagnostics panel.
+ * <p>
+ * Counters only grow; the panel derives per-second rates from successive readings. Frame
+ * gaps show how regularly the indicator sends, latency how long the app takes from byte
+ * arrival to the live weight on screen.
+ */
+public class SerialMetrics {
+
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder invalidFrames = new LongAdder();
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder openFailures = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+    private final LongAdder stalePeriods = new LongAdder();
+    private final LongAdder staleNanos = new LongAdder();
+    private final LatencyHistogram frameGaps = new LatencyHistogram();
+    private final LatencyHistogram screenLatency = new LatencyHistogram();
+    private final long startedNanos = System.nanoTime();
+
+    private volatile long lastFrameNanos;
+    private volatile long staleSinceNanos;
+
+    public void onBytes(int count) {
+        bytes.add(count);
+    }
+
+    /**
+     * Called from the decoding thread for every valid frame.
+     */
+    public void onFrame(long receivedNanos) {
+        frames.increment();
+        if (lastFrameNanos != 0) {
+            frameGaps.record(receivedNanos - lastFrameNanos);
+        }
+        lastFrameNanos = receivedNanos;
+    }
+
+    public void onInvalidFrame() {
+        invalidFrames.increment();
+    }
+
+    public void onConnect() {
+        connects.increment();
+        lastFrameNanos = 0;
+    }
+
+    public void onOpenFailure() {
+        openFailures.increment();
+    }
+
+    public void onDisconnect() {
+        disconnects.increment();
+    }
+
+    /**
+     * Called by the watchdog when frames stop; {@code lastFrameNanos} is when the last one
+     * arrived.
+     */
+    public void onStale(long lastFrameNanos) {
+        stalePeriods.increment();
+        staleSinceNanos = lastFrameNanos;
+    }
+
+    /**
+     * Closes the current stale period at {@code resumedNanos} and returns its length.
+     */
+    public long onStaleCleared(long resumedNanos) {
+        long since = staleSinceNanos;
+        staleSinceNanos = 0;
+        if (since == 0) {
+            return 0;
+        }
+        long duration = Math.max(0, resumedNanos - since);
+        staleNanos.add(duration);
+        return duration;
+    }
+
+    public void onRendered(long receivedNanos) {
+        screenLatency.record(System.nanoTime() - receivedNanos);
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getFrames() {
+        return frames.sum();
+    }
+
+    public long getInvalidFrames() {
+        return invalidFrames.sum();
+    }
+
+    public long getConnects() {
+        return connects.sum();
+    }
+
+    /**
+     * Returns successful opens after the first one.
+     */
+    public long getReconnects() {
+        return Math.max(0, connects.sum() - 1);
+    }
+
+    public long getOpenFailures() {
+        return openFailures.sum();
+    }
+
+    public long getDisconnects() {
+        return disconnects.sum();
+    }
+
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    public long getStalePeriods() {
+        return stalePeriods.sum();
+    }
+
+    /**
+     * Returns the total time without data, including a stale period still in progress.
+     */
+    public long getStaleNanos() {
+        long since = staleSinceNanos;
+        long ongoing = since != 0 ? Math.max(0, System.nanoTime() - since) : 0;
+        return staleNanos.sum() + ongoing;
+    }
+
+    public LatencyHistogram getFrameGaps() {
+        return frameGaps;
+    }
+
+    public LatencyHistogram getScreenLatency() {
+        return screenLatency;
+    }
+
+    public long getUptimeNanos() {
+        return System.nanoTime() - startedNanos;
+    }
+}
@@ -0,0 +1,147 @@
+package com.hcs.weighbridge.serial;
+
+import com.fazecast.jSerialComm.SerialPort;
+import com.hcs.weighbridge.model.SerialConfig;
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * {@link WeighDevice} backed by a jSerialComm port.
+ * <p>
+ * The device remembers the USB identity of the adapter it last opened, so when the adapter
+ * is re-plugged and the OS hands it a different COM name, the device follows it.
+ */
+public class SerialPortDevice implements WeighDevice {
+
+    private static final Logger logger = LogUtil.getLogger(SerialPortDevice.class);
+    private static final int READ_TIMEOUT_MS = 1000;
+
+    private final SerialConfig cfg;
+    private volatile SerialPort port;
+    private volatile PortInfo identity;
+
+    public SerialPortDevice(SerialConfig cfg) {
+        this.cfg = cfg;
+        port = createPort(cfg.getPortName());
+        identity = new PortInfo(cfg.getPortName(), null, 0, 0, null);
+        PortInfo attached = PortWatcher.find(identity);
+        if (attached != null) {
+            identity = attached;
+        }
+    }
+
+    private SerialPort createPort(String portName) {
+        SerialPort newPort = SerialPort.getCommPort(portName);
+        logger.info("Retrieved SerialPort for: {}", portName);
+
+        newPort.setComPortParameters(
+                cfg.getBaudRate(),
+                cfg.getDataBits(),
+                cfg.getStopBits() == 1
+                        ? SerialPort.ONE_STOP_BIT
+                        : SerialPort.TWO_STOP_BITS,
+                cfg.getParity()
+        );
+
+        logger.debug("Serial port parameters set - Baud: {}, Data Bits: {}, Stop Bits: {}, Parity: {}",
+                cfg.getBaudRate(), cfg.getDataBits(),
+                cfg.getStopBits() == 1 ? "ONE" : "TWO",
+                cfg.getParity());
+
+        // Semi-blocking reads return as soon as any bytes are available, so a whole burst is
+        // pulled in a single native call instead of one call per byte.
+        newPort.setComPortTimeouts(
+                SerialPort.TIMEOUT_READ_SEMI_BLOCKING,
+                READ_TIMEOUT_MS,
+                0
+        );
+        logger.trace("Serial port timeouts set to TIMEOUT_READ_SEMI_BLOCKING ({} ms)", READ_TIMEOUT_MS);
+        return newPort;
+    }
+
+    public SerialPort getPort() {
+        return port;
+    }
+
+    @Override
+    public String getName() {
+        return port.getSystemPortName();
+    }
+
+    @Override
+    public boolean open() {
+        if (!port.openPort()) {
+            return false;
+        }
+        PortInfo opened = PortInfo.of(port);
+        if (opened.isUsb()) {
+            identity = opened;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return port.isOpen();
+    }
+
+    @Override
+    public int read(byte[] buffer, int length) {
+        return port.readBytes(buffer, length);
+    }
+
+    @Override
+    public void close() {
+        port.closePort();
+    }
+
+    /**
+     * Returns the system name the adapter is attached under in the cached port list, or null
+     * while it is not attached.
+     */
+    public String findLocation() {
+        PortInfo location = PortWatcher.find(identity);
+        return location == null ? null : location.getSystemName();
+    }
+
+    /**
+     * Checks the cached port list for the adapter, switching to its new name if it moved.
+     * Returns false while it is not attached.
+     */
+    public boolean refreshLocation() {
+        PortInfo location = PortWatcher.find(identity);
+        if (location == null) {
+            return false;
+        }
+        if (!location.getSystemName().equals(port.getSystemPortName()) && !port.isOpen()) {
+            logger.info("Scale adapter {} moved from {} to {}", identity, port.getSystemPortName(),
+                    location.getSystemName());
+            port = createPort(location.getSystemName());
+        }
+        return true;
+    }
+
+    /**
+     * Sleeps the backoff delay while the adapter is attached (the port is busy or failing),
+     * but returns as soon as a detached adapter reappears.
+     */
+    @Override
+    public void awaitReconnect(long timeoutMs) throws InterruptedException {
+        if (refreshLocation()) {
+            Thread.sleep(timeoutMs);
+            return;
+        }
+
+        logger.debug("{} is not attached; waiting up to {} ms for it to reappear", getName(), timeoutMs);
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        long remaining = timeoutMs;
+        while (remaining > 0) {
+            long seen = PortWatcher.getVersion();
+            if (refreshLocation()) {
+                return;
+            }
+            PortWatcher.awaitChange(seen, remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.hcs.weighbridge.serial;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulated indicator producing STANDARD protocol frames at 20 frames/s.
+ * <p>
+ * Cycles through realistic truck weighings: empty deck, arrival ramp, damped settling
+ * oscillation, loaded hold with small noise and departure ramp. Status is {@code 'M'} while
+ * the load is moving and {@code 'P'} otherwise.
+ */
+public class SimulatedScaleDevice implements WeighDevice {
+
+    private static final long FRAME_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int NOISE_KG = 5;
+    private static final int SETTLE_AMPLITUDE_KG = 250;
+    private static final int SETTLED_THRESHOLD_KG = 10;
+
+    private enum Phase {
+        EMPTY,
+        ARRIVING,
+        SETTLING,
+        LOADED,
+        LEAVING
+    }
+
+    private final Random random = new Random();
+    private final byte[] frame = new byte[10];
+    private volatile boolean open;
+
+    private long nextFrameNanos;
+    private Phase phase;
+    private long phaseStartNanos;
+    private long phaseDurationNanos;
+    private int loadKg;
+
+    @Override
+    public String getName() {
+        return WeighDevices.SIMULATOR_PREFIX;
+    }
+
+    @Override
+    public boolean open() {
+        long now = System.nanoTime();
+        nextFrameNanos = now;
+        enterPhase(Phase.EMPTY, now);
+        open = true;
+        return true;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public int read(byte[] buffer, int length) {
+        if (!open) {
+            return -1;
+        }
+
+        long wait = nextFrameNanos - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(Math.min(wait, MAX_WAIT_NANOS));
+            if (nextFrameNanos - System.nanoTime() > 0) {
+                return 0;
+            }
+        }
+
+        long now = System.nanoTime();
+        nextFrameNanos = now - nextFrameNanos > MAX_WAIT_NANOS
+                ? now + FRAME_INTERVAL_NANOS
+                : nextFrameNanos + FRAME_INTERVAL_NANOS;
+
+        int frameLength = encodeFrame(now);
+        int count = Math.min(frameLength, length);
+        System.arraycopy(frame, 0, buffer, 0, count);
+        return count;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private void enterPhase(Phase next, long now) {
+        phase = next;
+        phaseStartNanos = now;
+        switch (next) {
+            case EMPTY:
+                phaseDurationNanos = seconds(5, 15);
+                break;
+            case ARRIVING:
+                loadKg = 8000 + random.nextInt(32000);
+                phaseDurationNanos = seconds(3, 5);
+                break;
+            case SETTLING:
+                phaseDurationNanos = seconds(3, 4);
+                break;
+            case LOADED:
+                phaseDurationNanos = seconds(8, 20);
+                break;
+            case LEAVING:
+                phaseDurationNanos = seconds(3, 5);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private long seconds(int min, int max) {
+        return TimeUnit.MILLISECONDS.toNanos(min * 1000L + random.nextInt((max - min) * 1000));
+    }
+
+    private int encodeFrame(long now) {
+        long elapsed = now - phaseStartNanos;
+        if (elapsed >= phaseDurationNanos) {
+            enterPhase(Phase.values()[(phase.ordinal() + 1) % Phase.values().length], now);
+            elapsed = 0;
+        }
+
+        double progress = (double) elapsed / phaseDurationNanos;
+        int noise = random.nextInt(2 * NOISE_KG + 1) - NOISE_KG;
+        int weight;
+        char status;
+
+        switch (phase) {
+            case ARRIVING:
+                weight = (int) (loadKg * progress) + noise * 4;
+                status = 'M';
+                break;
+            case SETTLING:
+                double seconds = elapsed / 1e9;
+                int swing = (int) (SETTLE_AMPLITUDE_KG * Math.exp(-3 * progress)
+                        * Math.sin(2 * Math.PI * 1.5 * seconds));
+                weight = loadKg + swing + noise;
+                status = Math.abs(swing) > SETTLED_THRESHOLD_KG ? 'M' : 'P';
+                break;
+            case LOADED:
+                weight = loadKg + noise;
+                status = 'P';
+                break;
+            case LEAVING:
+                weight = (int) (loadKg * (1 - progress)) + noise * 4;
+                status = 'M';
+                break;
+            default:
+                weight = noise;
+                status = 'P';
+                break;
+        }
+
+        frame[0] = (byte) status;
+        frame[1] = (byte) (weight < 0 ? '-' : '+');
+        int value = Math.min(Math.abs(weight), 999999);
+        for (int i = 7; i >= 2; i--) {
+            frame[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        frame[8] = '\r';
+        return 9;
+    }
+}
@@ -0,0 +1,237 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.model.StabilityConfig;
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decides stability from the weight stream itself instead of the indicator's status character.
+ * <p>
+ * The last samples are kept in primitive ring buffers sized from the window and
+ * {@link #MAX_FRAME_RATE_HZ}, so a full window always fits. Range comes from monotonic min/max
+ * queues and slope from running least-squares sums, so each sample costs O(1) amortised. The
+ * weight is stable once the samples covering the whole window stay within the tolerance and
+ * the trend is flatter than the configured slope.
+ * <p>
+ * {@link #onSample} must be called from a single thread; {@link #isStable()} may be read from
+ * any thread.
+ */
+public class StabilityDetector {
+
+    private static final Logger logger = LogUtil.getLogger(StabilityDetector.class);
+
+    /**
+     * Fastest continuous output the ring is sized for.
+     */
+    static final int MAX_FRAME_RATE_HZ = 200;
+    /**
+     * Longest window accepted; longer settings are clamped so the ring stays small.
+     */
+    static final long MAX_WINDOW_MS = 60_000;
+    private static final long REBASE_INTERVAL_NANOS = 60_000_000_000L;
+
+    private final int capacity;
+    private final int mask;
+
+    private final long windowNanos;
+    private final int toleranceKg;
+    private final double maxSlopeKgPerSec;
+
+    private final int[] weights;
+    private final long[] times;
+    private long head;
+    private long tail;
+
+    private final long[] maxQueue;
+    private int maxFront;
+    private int maxSize;
+    private final long[] minQueue;
+    private int minFront;
+    private int minSize;
+    private boolean overrunLogged;
+
+    private long originNanos;
+    private double sumT;
+    private double sumW;
+    private double sumTW;
+    private double sumTT;
+
+    private volatile boolean stable;
+
+    public StabilityDetector(StabilityConfig config) {
+        long windowMs = clampWindowMs(config.getWindowMs());
+        this.windowNanos = windowMs * 1_000_000L;
+        this.toleranceKg = config.getToleranceKg();
+        this.maxSlopeKgPerSec = config.getMaxSlopeKgPerSec();
+        this.capacity = capacityFor(windowMs);
+        this.mask = capacity - 1;
+        this.weights = new int[capacity];
+        this.times = new long[capacity];
+        this.maxQueue = new long[capacity];
+        this.minQueue = new long[capacity];
+    }
+
+    /**
+     * Clamps {@code windowMs} to 1..{@link #MAX_WINDOW_MS}, warning when it had to.
+     */
+    static long clampWindowMs(long windowMs) {
+        long clamped = Math.max(1, Math.min(MAX_WINDOW_MS, windowMs));
+        if (clamped != windowMs) {
+            logger.warn("Stability window of {} ms is out of range; using {} ms", windowMs, clamped);
+        }
+        return clamped;
+    }
+
+    /**
+     * Returns the power-of-two ring size that holds a {@code windowMs} window at
+     * {@link #MAX_FRAME_RATE_HZ}, plus the sample before the window start.
+     */
+    static int capacityFor(long windowMs) {
+        long needed = windowMs * MAX_FRAME_RATE_HZ / 1000 + 2;
+        return Integer.highestOneBit((int) Math.max(2, needed - 1)) << 1;
+    }
+
+    public void onSample(int weightKg, long nanoTime) {
+        if (head == tail) {
+            originNanos = nanoTime;
+        } else if (nanoTime - originNanos > REBASE_INTERVAL_NANOS) {
+            rebase(nanoTime);
+        }
+
+        if (head - tail == capacity) {
+            logOverrun(nanoTime);
+            evictOldest();
+        }
+
+        long seq = head++;
+        int slot = (int) (seq & mask);
+        weights[slot] = weightKg;
+        times[slot] = nanoTime;
+        addToSums(weightKg, nanoTime);
+        pushMax(seq, weightKg);
+        pushMin(seq, weightKg);
+
+        // Keep one sample at or before the window start so the window is known to be covered.
+        long windowStart = nanoTime - windowNanos;
+        while (head - tail > 1 && times[(int) ((tail + 1) & mask)] <= windowStart) {
+            evictOldest();
+        }
+
+        stable = times[(int) (tail & mask)] <= windowStart
+                && getRange() <= toleranceKg
+                && Math.abs(getSlope()) <= maxSlopeKgPerSec;
+    }
+
+    /**
+     * Warns once if frames arrive faster than {@link #MAX_FRAME_RATE_HZ}, since the window
+     * can then no longer be covered and the weight never reads as stable.
+     */
+    private void logOverrun(long nanoTime) {
+        if (!overrunLogged && times[(int) (tail & mask)] > nanoTime - windowNanos) {
+            overrunLogged = true;
+            logger.warn("More than {} samples within the {} ms stability window; frames arrive faster "
+                    + "than {} Hz", capacity, windowNanos / 1_000_000L, MAX_FRAME_RATE_HZ);
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isStable() {
+        return stable;
+    }
+
+    public void reset() {
+        head = 0;
+        tail = 0;
+        maxFront = maxSize = 0;
+        minFront = minSize = 0;
+        sumT = sumW = sumTW = sumTT = 0;
+        stable = false;
+    }
+
+    /**
+     * Returns max - min over the current window.
+     */
+    public int getRange() {
+        if (head == tail) {
+            return 0;
+        }
+        return weights[(int) (maxQueue[maxFront] & mask)] - weights[(int) (minQueue[minFront] & mask)];
+    }
+
+    /**
+     * Returns the least-squares slope of the window in kg per second.
+     */
+    public double getSlope() {
+        long n = head - tail;
+        if (n < 2) {
+            return 0;
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        if (denominator <= 0) {
+            return 0;
+        }
+        return (n * sumTW - sumT * sumW) / denominator;
+    }
+
+    private void evictOldest() {
+        long seq = tail++;
+        int slot = (int) (seq & mask);
+        removeFromSums(weights[slot], times[slot]);
+        if (maxSize > 0 && maxQueue[maxFront] == seq) {
+            maxFront = (maxFront + 1) & mask;
+            maxSize--;
+        }
+        if (minSize > 0 && minQueue[minFront] == seq) {
+            minFront = (minFront + 1) & mask;
+            minSize--;
+        }
+    }
+
+    private void pushMax(long seq, int weight) {
+        while (maxSize > 0 && weights[(int) (maxQueue[(maxFront + maxSize - 1) & mask] & mask)] <= weight) {
+            maxSize--;
+        }
+        maxQueue[(maxFront + maxSize) & mask] = seq;
+        maxSize++;
+    }
+
+    private void pushMin(long seq, int weight) {
+        while (minSize > 0 && weights[(int) (minQueue[(minFront + minSize - 1) & mask] & mask)] >= weight) {
+            minSize--;
+        }
+        minQueue[(minFront + minSize) & mask] = seq;
+        minSize++;
+    }
+
+    private void addToSums(int weight, long nanoTime) {
+        double t = (nanoTime - originNanos) / 1e9;
+        sumT += t;
+        sumW += weight;
+        sumTW += t * weight;
+        sumTT += t * t;
+    }
+
+    private void removeFromSums(int weight, long nanoTime) {
+        double t = (nanoTime - originNanos) / 1e9;
+        sumT -= t;
+        sumW -= weight;
+        sumTW -= t * weight;
+        sumTT -= t * t;
+    }
+
+    /**
+     * Moves the time origin forward and recomputes the sums, keeping them precise over long
+     * uptimes. Runs once a minute, so the O(n) pass stays O(1) amortised.
+     */
+    private void rebase(long nanoTime) {
+        originNanos = nanoTime;
+        sumT = sumW = sumTW = sumTT = 0;
+        for (long seq = tail; seq < head; seq++) {
+            int slot = (int) (seq & mask);
+            addToSums(weights[slot], times[slot]);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Decoder for the {@code [A-Z][+-][0-9.]+} format terminated by {@code \r}.
+ * <p>
+ * Control characters are ignored anywhere in the frame and surrounding spaces are tolerated,
+ * matching the original regex based parser.
+ */
+public class StandardFrameDecoder extends FrameDecoder {
+
+    private static final int DECIMAL_PLACES = 0;
+    private static final int MAX_INTEGER_DIGITS = 9;
+    private static final int MAX_FRACTION_DIGITS = 9;
+
+    private static final int STATE_STATUS = 0;
+    private static final int STATE_POLARITY = 1;
+    private static final int STATE_VALUE = 2;
+    private static final int STATE_TRAILING = 3;
+    private static final int STATE_INVALID = 4;
+
+    private int state = STATE_STATUS;
+    private char status;
+    private boolean negative;
+    private long mantissa;
+    private int integerDigits;
+    private int fractionDigits;
+    private boolean seenDot;
+    private boolean hasDigits;
+
+    public StandardFrameDecoder(FrameListener listener) {
+        super(listener);
+    }
+
+    @Override
+    public void accept(byte b) {
+        int c = b & 0xFF;
+
+        if (c == '\r') {
+            endFrame();
+            return;
+        }
+
+        captureRaw(b);
+
+        if (c < 0x20) {
+            return;
+        }
+
+        switch (state) {
+            case STATE_STATUS:
+                if (c == ' ') {
+                    return;
+                }
+                if (c >= 'A' && c <= 'Z') {
+                    status = (char) c;
+                    state = STATE_POLARITY;
+                } else {
+                    state = STATE_INVALID;
+                }
+                break;
+            case STATE_POLARITY:
+                if (c == '+' || c == '-') {
+                    negative = c == '-';
+                    state = STATE_VALUE;
+                } else {
+                    state = STATE_INVALID;
+                }
+                break;
+            case STATE_VALUE:
+                if (c >= '0' && c <= '9') {
+                    appendDigit(c - '0');
+                } else if (c == '.') {
+                    if (seenDot) {
+                        state = STATE_INVALID;
+                    } else {
+                        seenDot = true;
+                    }
+                } else if (c == ' ') {
+                    state = STATE_TRAILING;
+                } else {
+                    state = STATE_INVALID;
+                }
+                break;
+            case STATE_TRAILING:
+                if (c != ' ') {
+                    state = STATE_INVALID;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void appendDigit(int digit) {
+        hasDigits = true;
+        if (seenDot) {
+            if (fractionDigits == MAX_FRACTION_DIGITS) {
+                // Further precision cannot change a result rounded to 5 kg.
+                return;
+            }
+            fractionDigits++;
+        } else if (mantissa == 0 && digit == 0) {
+            return;
+        } else if (++integerDigits > MAX_INTEGER_DIGITS) {
+            state = STATE_INVALID;
+            return;
+        }
+        mantissa = mantissa * 10 + digit;
+    }
+
+    private void endFrame() {
+        int currentState = state;
+
+        if (currentState != STATE_STATUS) {
+            if ((currentState == STATE_VALUE || currentState == STATE_TRAILING) && hasDigits) {
+                int scale = seenDot ? fractionDigits : DECIMAL_PLACES;
+                emitFrame(status, roundToFiveKg(negative ? -mantissa : mantissa, scale));
+            } else {
+                emitInvalid();
+            }
+        }
+
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        state = STATE_STATUS;
+        status = 0;
+        negative = false;
+        mantissa = 0;
+        integerDigits = 0;
+        fractionDigits = 0;
+        seenDot = false;
+        hasDigits = false;
+    }
+}
@@ -0,0 +1,26 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * The original {@code [A-Z][+-][0-9.]+} format used by the default indicators.
+ */
+public class StandardProtocol implements ScaleProtocol {
+
+    public static final String NAME = "STANDARD";
+
+    private static final byte[] DELIMITER = {'\r'};
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] getFrameDelimiter() {
+        return DELIMITER.clone();
+    }
+
+    @Override
+    public FrameDecoder newDecoder(FrameListener listener) {
+        return new StandardFrameDecoder(listener);
+    }
+}
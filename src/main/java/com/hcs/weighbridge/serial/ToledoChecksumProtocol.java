@@ -0,0 +1,17 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Mettler Toledo style continuous output with the checksum byte after CR enabled.
+ */
+public class ToledoChecksumProtocol extends ToledoProtocol {
+
+    @Override
+    public String getName() {
+        return "TOLEDO_CHECKSUM";
+    }
+
+    @Override
+    public FrameDecoder newDecoder(FrameListener listener) {
+        return new ToledoFrameDecoder(listener, true);
+    }
+}
@@ -0,0 +1,195 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Decoder for Mettler Toledo style continuous output:
+ * {@code STX SWA SWB SWC <6 digit weight> <6 digit tare> CR [checksum]}.
+ * <p>
+ * The decimal point position comes from status word A and sign, motion, over-range and the
+ * kg/lb flag from status word B. Indicators set to pounds are converted to kg, and frames in
+ * any other unit (status word C: grams, tonnes, ounces, ...) are rejected, so the rest of the
+ * application only ever sees kg. When the checksum is enabled the byte after
+ * CR must make the 7-bit sum of the whole frame zero. Stable frames are reported with status
+ * {@code 'P'} and frames in motion with {@code 'M'}.
+ */
+public class ToledoFrameDecoder extends FrameDecoder {
+
+    private static final int STX = 0x02;
+    private static final int DIGITS = 6;
+    private static final int ALWAYS_SET_BIT = 0x20;
+    private static final int SWB_NEGATIVE = 0x02;
+    private static final int SWB_OVER_RANGE = 0x04;
+    private static final int SWB_MOTION = 0x08;
+    /**
+     * Set for kg, clear for lb, when status word C selects the primary units.
+     */
+    private static final int SWB_KG = 0x10;
+    /**
+     * Status word C bits 0-2 are zero for lb/kg and name an alternate unit otherwise.
+     */
+    private static final int SWC_UNIT_MASK = 0x07;
+
+    /**
+     * One pound is exactly 0.45359237 kg.
+     */
+    private static final long KG_PER_LB_E8 = 45_359_237L;
+    private static final long E8 = 100_000_000L;
+
+    private static final int STATE_WAIT_STX = 0;
+    private static final int STATE_SWA = 1;
+    private static final int STATE_SWB = 2;
+    private static final int STATE_SWC = 3;
+    private static final int STATE_WEIGHT = 4;
+    private static final int STATE_TARE = 5;
+    private static final int STATE_CR = 6;
+    private static final int STATE_CHECKSUM = 7;
+
+    private final boolean checksumEnabled;
+
+    private int state = STATE_WAIT_STX;
+    private int swa;
+    private int swb;
+    private int swc;
+    private int digitCount;
+    private long mantissa;
+    private int sum;
+
+    public ToledoFrameDecoder(FrameListener listener, boolean checksumEnabled) {
+        super(listener);
+        this.checksumEnabled = checksumEnabled;
+    }
+
+    @Override
+    public void accept(byte b) {
+        int c = b & 0x7F;
+
+        // The checksum byte itself may legitimately take the value of STX.
+        if (c == STX && state != STATE_CHECKSUM) {
+            if (state != STATE_WAIT_STX) {
+                // A new frame started before the previous one completed.
+                emitInvalid();
+            }
+            reset();
+            captureRaw(b);
+            sum = c;
+            state = STATE_SWA;
+            return;
+        }
+
+        if (state == STATE_WAIT_STX) {
+            return;
+        }
+
+        captureRaw(b);
+        sum += c;
+
+        switch (state) {
+            case STATE_SWA:
+                swa = c;
+                state = (c & ALWAYS_SET_BIT) != 0 ? STATE_SWB : fail();
+                break;
+            case STATE_SWB:
+                swb = c;
+                state = (c & ALWAYS_SET_BIT) != 0 ? STATE_SWC : fail();
+                break;
+            case STATE_SWC:
+                swc = c;
+                state = (c & ALWAYS_SET_BIT) != 0 ? STATE_WEIGHT : fail();
+                break;
+            case STATE_WEIGHT:
+                if (!isDigitOrBlank(c)) {
+                    state = fail();
+                    break;
+                }
+                mantissa = mantissa * 10 + (c == ' ' ? 0 : c - '0');
+                if (++digitCount == DIGITS) {
+                    digitCount = 0;
+                    state = STATE_TARE;
+                }
+                break;
+            case STATE_TARE:
+                if (!isDigitOrBlank(c)) {
+                    state = fail();
+                    break;
+                }
+                if (++digitCount == DIGITS) {
+                    state = STATE_CR;
+                }
+                break;
+            case STATE_CR:
+                if (c != '\r') {
+                    state = fail();
+                } else if (checksumEnabled) {
+                    state = STATE_CHECKSUM;
+                } else {
+                    endFrame();
+                }
+                break;
+            case STATE_CHECKSUM:
+                if ((sum & 0x7F) == 0) {
+                    endFrame();
+                } else {
+                    state = fail();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static boolean isDigitOrBlank(int c) {
+        return (c >= '0' && c <= '9') || c == ' ';
+    }
+
+    private int fail() {
+        emitInvalid();
+        reset();
+        return STATE_WAIT_STX;
+    }
+
+    private void endFrame() {
+        boolean overRange = (swb & SWB_OVER_RANGE) != 0;
+        if (overRange || (swc & SWC_UNIT_MASK) != 0) {
+            fail();
+            return;
+        }
+
+        boolean negative = (swb & SWB_NEGATIVE) != 0;
+        boolean motion = (swb & SWB_MOTION) != 0;
+        boolean pounds = (swb & SWB_KG) == 0;
+
+        // Status word A bits 0-2: 0 = x100, 1 = x10, 2 = no decimal point, 3.. = 1..5 decimals.
+        int scale = (swa & 0x07) - 2;
+        long value = mantissa;
+        if (scale < 0) {
+            value *= POW10[-scale];
+            scale = 0;
+        }
+
+        long signed = negative ? -value : value;
+        emitFrame(motion ? 'M' : 'P', pounds ? poundsToFiveKg(signed, scale) : roundToFiveKg(signed, scale));
+        reset();
+    }
+
+    /**
+     * Converts {@code mantissa / 10^scale} lb to kg rounded to the nearest 5 kg, in integer
+     * arithmetic like {@link #roundToFiveKg(long, int)}. Six digits and at most five decimals
+     * keep every product well inside a long.
+     */
+    static int poundsToFiveKg(long mantissa, int scale) {
+        long unit = POW10[scale] * E8;
+        long steps = Math.floorDiv(2 * mantissa * KG_PER_LB_E8 + 5 * unit, 10 * unit);
+        return (int) steps * 5;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        state = STATE_WAIT_STX;
+        swa = 0;
+        swb = 0;
+        swc = 0;
+        digitCount = 0;
+        mantissa = 0;
+        sum = 0;
+    }
+}
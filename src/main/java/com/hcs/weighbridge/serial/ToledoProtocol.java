@@ -0,0 +1,24 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Mettler Toledo style continuous output without checksum.
+ */
+public class ToledoProtocol implements ScaleProtocol {
+
+    private static final byte[] DELIMITER = {'\r'};
+
+    @Override
+    public String getName() {
+        return "TOLEDO";
+    }
+
+    @Override
+    public byte[] getFrameDelimiter() {
+        return DELIMITER.clone();
+    }
+
+    @Override
+    public FrameDecoder newDecoder(FrameListener listener) {
+        return new ToledoFrameDecoder(listener, false);
+    }
+}
@@ -0,0 +1,29 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Byte source a {@link WeighReader} ingests from: a real serial port or a simulated one.
+ */
+public interface WeighDevice {
+
+    String getName();
+
+    boolean open();
+
+    boolean isOpen();
+
+    /**
+     * Reads whatever bytes are available into {@code buffer}, waiting at most the device's
+     * read timeout. Returns the number of bytes read, 0 on timeout or -1 when the device failed.
+     */
+    int read(byte[] buffer, int length);
+
+    void close();
+
+    /**
+     * Waits before the next open attempt after a failure. Devices that can tell when they
+     * come back may return early.
+     */
+    default void awaitReconnect(long timeoutMs) throws InterruptedException {
+        Thread.sleep(timeoutMs);
+    }
+}
@@ -0,0 +1,54 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.model.SerialConfig;
+
+/**
+ * Creates the {@link WeighDevice} for a port name.
+ * <ul>
+ *     <li>{@code SIM:} - {@link SimulatedScaleDevice} generating truck weighings</li>
+ *     <li>{@code REPLAY:<file>[@<speed>]} - {@link FrameReplayDevice} replaying a frame log at
+ *     1x to 100x speed</li>
+ *     <li>anything else - a real serial port</li>
+ * </ul>
+ */
+public final class WeighDevices {
+
+    public static final String SIMULATOR_PREFIX = "SIM:";
+    public static final String REPLAY_PREFIX = "REPLAY:";
+
+    private WeighDevices() {
+    }
+
+    public static WeighDevice create(SerialConfig cfg) {
+        String name = cfg.getPortName() != null ? cfg.getPortName().trim() : "";
+
+        if (name.toUpperCase().startsWith(SIMULATOR_PREFIX)) {
+            return new SimulatedScaleDevice();
+        }
+
+        if (name.toUpperCase().startsWith(REPLAY_PREFIX)) {
+            String spec = name.substring(REPLAY_PREFIX.length());
+            double speed = 1.0;
+            int at = spec.lastIndexOf('@');
+            if (at > 0) {
+                try {
+                    speed = Double.parseDouble(spec.substring(at + 1).replace("x", ""));
+                    spec = spec.substring(0, at);
+                } catch (NumberFormatException e) {
+                    // '@' is part of the file name
+                }
+            }
+            return new FrameReplayDevice(spec, speed);
+        }
+
+        return new SerialPortDevice(cfg);
+    }
+
+    public static boolean isSimulated(String portName) {
+        if (portName == null) {
+            return false;
+        }
+        String upper = portName.trim().toUpperCase();
+        return upper.startsWith(SIMULATOR_PREFIX) || upper.startsWith(REPLAY_PREFIX);
+    }
+}
@@ -1,70 +1,193 @@
 package com.hcs.weighbridge.serial;
 
 import com.fazecast.jSerialComm.SerialPort;
+import com.fazecast.jSerialComm.SerialPortEvent;
+import com.fazecast.jSerialComm.SerialPortMessageListener;
+import com.hcs.weighbridge.constants.IngestMode;
 import com.hcs.weighbridge.model.SerialConfig;
 import com.hcs.weighbridge.util.LogUtil;
+import com.hcs.weighbridge.util.SampledLogger;
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Logger;
 
-import java.io.InputStream;
-import java.util.function.BiConsumer;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class WeighReader {
 
     private static final Logger logger = LogUtil.getLogger(WeighReader.class);
-    private final SerialPort port;
+    private static final int READ_BUFFER_SIZE = 1024;
+    private static final long RETRY_BASE_MS = 250;
+    private static final long RETRY_MAX_MS = 30_000;
+    private static final long FRAME_LOG_INTERVAL_MS = 1000;
+    private static final long INVALID_LOG_INTERVAL_MS = 10_000;
+    public static final long DEFAULT_STALE_AFTER_MS = 3000;
+
+    private final WeighDevice device;
+    private final IngestMode ingestMode;
     private volatile boolean running = true;
-    private final BiConsumer<Integer, Character> listener;
-
-    private static final int DECIMAL_PLACES = 0;
+    private Thread readerThread;
+    private int connectionAttempts;
+    private final Backoff backoff = new Backoff(RETRY_BASE_MS, RETRY_MAX_MS);
+    private ScheduledFuture<?> pendingReopen;
+    private Runnable portListener;
+    private final WeightSampleListener listener;
+    private final StabilityDetector stability;
+    private long receivedNanos;
+    private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+    private final ScaleProtocol protocol;
+    private final FrameDecoder decoder;
+    private volatile FrameJournal journal;
+    private volatile WeightFilter filter;
+    private boolean lastIndicatorStable;
+    private volatile CaptureStatsTracker statsTracker;
+    private final SampledLogger frameLog =
+            LogUtil.sampled(logger, Level.DEBUG, "Frames (kg)", FRAME_LOG_INTERVAL_MS);
+    private final SampledLogger invalidFrameLog =
+            LogUtil.sampled(logger, Level.WARN, "Invalid frames (bytes)", INVALID_LOG_INTERVAL_MS);
+    private volatile SerialMetrics metrics = new SerialMetrics();
+    private long staleAfterMs = DEFAULT_STALE_AFTER_MS;
+    private FrameWatchdog watchdog;
+
+    /**
+     * Creates a reader that hands every decoded frame, with its receive time, to
+     * {@code listener} on the thread that decoded it.
+     */
+    public WeighReader(SerialConfig cfg, WeightSampleListener listener) {
+        this(cfg, listener, null);
+    }
 
-    public WeighReader(SerialConfig cfg, BiConsumer<Integer, Character> listener) {
-        logger.debug("Creating WeighReader instance with config: {} and listener: {}",
-                cfg, listener != null ? "provided" : "null");
+    /**
+     * As above, also feeding each sample to {@code stability} first. Lanes pass their
+     * {@link WeightBus} as the listener, so slow consumers read from the ring at their own pace
+     * and never hold up the reader.
+     */
+    public WeighReader(SerialConfig cfg, WeightSampleListener listener, StabilityDetector stability) {
+        logger.debug("Creating WeighReader instance with config: {}", cfg);
         this.listener = listener;
+        this.stability = stability;
+        IngestMode ingestMode = cfg.getIngestMode() != null ? cfg.getIngestMode() : IngestMode.BLOCKING;
+        this.protocol = ScaleProtocols.forName(cfg.getProtocolName());
+        this.decoder = protocol.newDecoder(new FrameListener() {
+            @Override
+            public void onFrame(char status, int weightKg) {
+                handleFrame(status, weightKg);
+            }
+
+            @Override
+            public void onInvalidFrame(FrameDecoder source) {
+                handleInvalidFrame(source);
+            }
+        });
+        logger.info("Using scale protocol: {}", protocol.getName());
+
+        device = WeighDevices.create(cfg);
+        if (ingestMode == IngestMode.EVENT && !(device instanceof SerialPortDevice)) {
+            logger.warn("EVENT ingest needs a serial port; reading {} in BLOCKING mode", device.getName());
+            this.ingestMode = IngestMode.BLOCKING;
+        } else {
+            this.ingestMode = ingestMode;
+        }
+    }
 
-        port = SerialPort.getCommPort(cfg.getPortName());
-        logger.info("Retrieved SerialPort for: {}", cfg.getPortName());
-
-        port.setComPortParameters(
-                cfg.getBaudRate(),
-                cfg.getDataBits(),
-                cfg.getStopBits() == 1
-                        ? SerialPort.ONE_STOP_BIT
-                        : SerialPort.TWO_STOP_BITS,
-                cfg.getParity()
-        );
-
-        logger.debug("Serial port parameters set - Baud: {}, Data Bits: {}, Stop Bits: {}, Parity: {}",
-                cfg.getBaudRate(), cfg.getDataBits(),
-                cfg.getStopBits() == 1 ? "ONE" : "TWO",
-                cfg.getParity());
-
-        port.setComPortTimeouts(
-                SerialPort.TIMEOUT_READ_BLOCKING,
-                0,
-                0
-        );
-        logger.trace("Serial port timeouts set to TIMEOUT_READ_BLOCKING");
+    /**
+     * Records every received chunk in {@code journal}. Call before {@link #launch()}.
+     */
+    public void setJournal(FrameJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Replaces the reader's own metrics with {@code metrics}, typically one shared across
+     * reader restarts. Call before {@link #launch()}.
+     */
+    public void setMetrics(SerialMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Smooths decoded weights with {@code filter} before they reach the stability detector and
+     * the bus. The journal and metrics still see every raw frame. Call before {@link #launch()}.
+     */
+    public void setFilter(WeightFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Feeds every raw decoded weight to {@code tracker}. Call before {@link #launch()}.
+     */
+    public void setStatsTracker(CaptureStatsTracker tracker) {
+        this.statsTracker = tracker;
+    }
+
+    /**
+     * Marks the weight stale when no frame arrives for {@code staleAfterMs}. Call before
+     * {@link #launch()}.
+     */
+    public void setStaleAfterMs(long staleAfterMs) {
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    /**
+     * Returns {@code true} while the indicator has been silent for longer than the stale
+     * gap, whether or not the port is still open.
+     */
+    public boolean isStale() {
+        FrameWatchdog current = watchdog;
+        return current != null && current.isStale();
+    }
+
+    public SerialMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Starts ingesting in the configured mode without blocking the caller. BLOCKING mode runs
+     * {@link #start()} on its own daemon thread; EVENT mode hands the port to the shared
+     * {@link SerialDispatcher}.
+     */
+    public void launch() {
+        if (watchdog == null) {
+            watchdog = new FrameWatchdog(device.getName(), metrics, staleAfterMs);
+            watchdog.start();
+        }
+
+        if (ingestMode == IngestMode.EVENT) {
+            logger.info("Starting WeighReader in EVENT mode on {}", device.getName());
+            SerialDispatcher.execute(this::openEventDriven);
+            return;
+        }
+
+        readerThread = new Thread(this::start, "WeighReader-" + device.getName());
+        readerThread.setDaemon(true);
+        readerThread.start();
     }
 
     public void start() {
         logger.info("Starting WeighReader thread");
-        int connectionAttempts = 0;
+        connectionAttempts = 0;
 
         while (running) {
             try {
-                if (!port.isOpen()) {
+                if (!device.isOpen()) {
                     connectionAttempts++;
                     logger.debug("Attempting to open serial port (attempt #{})", connectionAttempts);
 
-                    if (!port.openPort()) {
-                        logger.warn("Failed to open serial port on attempt #{}", connectionAttempts);
-                        Thread.sleep(2000);
+                    if (!device.open()) {
+                        metrics.onOpenFailure();
+                        long delay = backoff.nextDelayMs();
+                        logOpenFailure(delay);
+                        device.awaitReconnect(delay);
                         continue;
                     }
 
-                    logger.info("Serial port opened successfully on attempt #{}", connectionAttempts);
+                    logger.info("Serial port {} opened successfully on attempt #{}", device.getName(), connectionAttempts);
                     connectionAttempts = 0; // Reset counter on success
+                    backoff.reset();
+                    metrics.onConnect();
                 }
 
                 readLoop();
@@ -76,15 +199,17 @@ public class WeighReader {
             } catch (Exception e) {
                 logger.error("Unexpected error in WeighReader main loop: {}", e.getMessage(), e);
                 System.err.println("Serial error: " + e.getMessage());
+                metrics.onDisconnect();
 
-                if (port.isOpen()) {
+                if (device.isOpen()) {
                     logger.debug("Closing serial port due to error");
-                    port.closePort();
+                    device.close();
                 }
 
                 try {
-                    logger.debug("Waiting 2 seconds before retry after error");
-                    Thread.sleep(2000);
+                    long delay = backoff.nextDelayMs();
+                    logger.debug("Waiting {} ms before retry after error", delay);
+                    device.awaitReconnect(delay);
                 } catch (InterruptedException ie) {
                     logger.warn("Interrupted while waiting to retry: {}", ie.getMessage());
                     Thread.currentThread().interrupt();
@@ -102,128 +227,241 @@ public class WeighReader {
 
     private void readLoop() throws Exception {
         logger.debug("Entering readLoop()");
-        InputStream in = port.getInputStream();
-        StringBuilder buffer = new StringBuilder();
-        int bytesRead = 0;
-        int framesProcessed = 0;
-
-        while (running && port.isOpen()) {
-            int b = in.read();
-            if (b < 0) {
-                logger.trace("read() returned -1 (end of stream)");
+        decoder.reset();
+        resetFilter();
+        long bytesRead = 0;
+        long framesAtStart = decoder.getValidFrames() + decoder.getInvalidFrames();
+
+        while (running && device.isOpen()) {
+            int count = device.read(readBuffer, readBuffer.length);
+            if (count < 0) {
+                throw new IOException("Read failed on serial port " + device.getName());
+            }
+            if (count == 0) {
+                // Read timed out with no data; loop to re-check the running flag.
                 continue;
             }
 
-            bytesRead++;
-            char c = (char) b;
+            bytesRead += count;
+            receivedNanos = System.nanoTime();
+            metrics.onBytes(count);
+            if (journal != null) {
+                journal.append(readBuffer, 0, count, receivedNanos);
+            }
+            decoder.accept(readBuffer, 0, count);
+        }
 
-            if (c == '\r') {
-                framesProcessed++;
-                String frameContent = buffer.toString();
-                logger.trace("Received carriage return, frame buffer: '{}'", frameContent);
+        flushFrameLogs();
+        logger.debug("Exiting readLoop() - Processed {} frames, {} total bytes",
+                decoder.getValidFrames() + decoder.getInvalidFrames() - framesAtStart, bytesRead);
+    }
 
-                if (!frameContent.trim().isEmpty()) {
-                    handleFrame(frameContent);
-                } else {
-                    logger.trace("Empty frame, ignoring");
-                }
+    private void handleFrame(char status, int roundedKg) {
+        metrics.onFrame(receivedNanos);
+        frameLog.record(roundedKg);
+        CaptureStatsTracker tracker = statsTracker;
+        if (tracker != null) {
+            tracker.onSample(roundedKg, receivedNanos);
+        }
 
-                buffer.setLength(0);
+        WeightFilter currentFilter = filter;
+        boolean indicatorStable = status == 'P' || status == 'T';
+        if (currentFilter != null && indicatorStable && !lastIndicatorStable) {
+            // The filter still remembers the load in motion. Restart it on the settled weight,
+            // so a lagging average or median is never published with the stable status.
+            currentFilter.reset();
+        }
+        lastIndicatorStable = indicatorStable;
+        int weightKg = currentFilter != null ? currentFilter.apply(roundedKg) : roundedKg;
+        if (stability != null) {
+            stability.onSample(weightKg, receivedNanos);
+        }
+        listener.onSample(weightKg, status, receivedNanos);
+    }
 
-                // Periodic logging
-                if (framesProcessed % 100 == 0) {
-                    logger.debug("Processed {} frames, {} total bytes read",
-                            framesProcessed, bytesRead);
-                }
-            }
-            else if (c == '\n') {
-                logger.trace("Ignoring newline character");
-            }
-            else {
-                // Log occasional characters for debugging
-                if (logger.isTraceEnabled() && bytesRead % 50 == 0) {
-                    logger.trace("Read character #{}: '{}' (0x{})",
-                            bytesRead, c, Integer.toHexString(b));
-                }
-                buffer.append(c);
-            }
+    private void resetFilter() {
+        lastIndicatorStable = false;
+        WeightFilter currentFilter = filter;
+        if (currentFilter != null) {
+            currentFilter.reset();
         }
+    }
 
-        logger.debug("Exiting readLoop() - Processed {} frames, {} total bytes",
-                framesProcessed, bytesRead);
+    /**
+     * Bad frames are summarised every few seconds with the latest example, so a miswired or
+     * misconfigured indicator cannot flood the log at frame rate.
+     */
+    private void handleInvalidFrame(FrameDecoder source) {
+        metrics.onInvalidFrame();
+        if (logger.isEnabled(Level.WARN)) {
+            String frame = source.lastFrameAsString();
+            invalidFrameLog.record(frame.length(), protocol.getName() + " '" + frame + "'");
+        }
     }
 
-    private void handleFrame(String rawFrame) {
-        logger.trace("Processing raw frame: '{}'", rawFrame);
+    private void flushFrameLogs() {
+        frameLog.flush();
+        invalidFrameLog.flush();
+    }
 
-        // Remove control characters
-        String frame = rawFrame.replaceAll("[\\x00-\\x1F]", "").trim();
+    /**
+     * Warns on the first failure only; further attempts log at debug so an unplugged adapter
+     * does not flood the log.
+     */
+    private void logOpenFailure(long retryDelayMs) {
+        if (backoff.getAttempt() == 1) {
+            logger.warn("Failed to open serial port {}; retrying with backoff", device.getName());
+        } else {
+            logger.debug("Failed to open serial port {} on attempt #{}, next try in {} ms",
+                    device.getName(), connectionAttempts, retryDelayMs);
+        }
+    }
 
-        if (frame.isEmpty()) {
-            logger.trace("Frame is empty after trimming control characters");
+    private void openEventDriven() {
+        SerialPortDevice serialDevice = (SerialPortDevice) device;
+        pendingReopen = null;
+        if (!running || serialDevice.isOpen()) {
             return;
         }
 
-        logger.debug("Frame after cleanup: '{}' (length: {})", frame, frame.length());
+        connectionAttempts++;
+        logger.debug("Attempting to open serial port (attempt #{})", connectionAttempts);
 
-        if (!frame.matches("[A-Z][+-][0-9.]+")) {
-            logger.warn("Invalid frame format: '{}'. Expected pattern: [A-Z][+-][0-9.]+", frame);
+        serialDevice.refreshLocation();
+        if (!serialDevice.open()) {
+            metrics.onOpenFailure();
+            scheduleReopen();
             return;
         }
 
-        char status = frame.charAt(0);
-        char polarity = frame.charAt(1);
-        String valuePart = frame.substring(2);
+        SerialPort port = serialDevice.getPort();
+        decoder.reset();
+        resetFilter();
+        if (!port.addDataListener(new FrameEventListener())) {
+            logger.error("Failed to register data listener on {}", device.getName());
+            port.closePort();
+            scheduleReopen();
+            return;
+        }
 
-        logger.trace("Parsed frame - Status: '{}', Polarity: '{}', Value: '{}'",
-                status, polarity, valuePart);
+        logger.info("Serial port {} opened successfully on attempt #{}", device.getName(), connectionAttempts);
+        connectionAttempts = 0;
+        backoff.reset();
+        unwatchPorts();
+        metrics.onConnect();
+    }
 
-        try {
-            double weightKg;
+    /**
+     * Retries after the next backoff delay. While the adapter is unplugged the port watcher is
+     * also consulted, so the retry happens as soon as it reappears; while it is attached but
+     * cannot be opened only the backoff applies. Runs on the dispatcher thread.
+     */
+    private void scheduleReopen() {
+        long delay = backoff.nextDelayMs();
+        logOpenFailure(delay);
+        pendingReopen = SerialDispatcher.schedule(this::openEventDriven, delay);
+
+        SerialPortDevice serialDevice = (SerialPortDevice) device;
+        String location = serialDevice.findLocation();
+        if (location != null) {
+            unwatchPorts();
+        } else if (portListener == null) {
+            portListener = new AdapterWatch(serialDevice);
+            PortWatcher.addListener(portListener);
+        }
+    }
 
-            if (valuePart.contains(".")) {
-                weightKg = Double.parseDouble(valuePart);
-                logger.trace("Parsed decimal value: {}", weightKg);
-            } else {
-                int raw = Integer.parseInt(valuePart);
-                weightKg = raw / Math.pow(10, DECIMAL_PLACES);
-                logger.trace("Parsed integer value: {}, converted to: {} ({} decimal places)",
-                        raw, weightKg, DECIMAL_PLACES);
-            }
+    private void reopenNow() {
+        if (pendingReopen != null) {
+            pendingReopen.cancel(false);
+            pendingReopen = null;
+            openEventDriven();
+        }
+    }
+
+    private void unwatchPorts() {
+        if (portListener != null) {
+            PortWatcher.removeListener(portListener);
+            portListener = null;
+        }
+    }
+
+    /**
+     * Runs on the port watcher thread and wakes the pending retry only when the adapter
+     * appears or moves, not on every change to the port list.
+     */
+    private final class AdapterWatch implements Runnable {
 
-            if (polarity == '-') {
-                logger.trace("Applying negative polarity to weight");
-                weightKg = -weightKg;
+        private final SerialPortDevice serialDevice;
+        private String lastLocation;
+
+        AdapterWatch(SerialPortDevice serialDevice) {
+            this.serialDevice = serialDevice;
+            this.lastLocation = serialDevice.findLocation();
+        }
+
+        @Override
+        public void run() {
+            String location = serialDevice.findLocation();
+            if (location != null && !location.equals(lastLocation)) {
+                SerialDispatcher.execute(WeighReader.this::reopenNow);
             }
+            lastLocation = location;
+        }
+    }
 
-            int roundedKg = (int) Math.round(weightKg / 5.0) * 5;
-            logger.debug("Raw weight: {} kg, Rounded to nearest 5kg: {} kg", weightKg, roundedKg);
+    private void handleDisconnect() {
+        SerialPort port = ((SerialPortDevice) device).getPort();
+        logger.warn("Serial port {} disconnected", device.getName());
+        flushFrameLogs();
+        metrics.onDisconnect();
+        port.removeDataListener();
+        port.closePort();
+        if (running) {
+            scheduleReopen();
+        }
+    }
+
+    /**
+     * Receives complete {@code \r}-delimited messages from jSerialComm's event thread and
+     * passes them to the dispatcher for decoding.
+     */
+    private final class FrameEventListener implements SerialPortMessageListener {
 
-            // Log every weight reading at debug level
-            logger.debug("Weight: {} kg | Status: {} | Polarity: {}",
-                    roundedKg, status, polarity);
+        @Override
+        public int getListeningEvents() {
+            return SerialPort.LISTENING_EVENT_DATA_RECEIVED | SerialPort.LISTENING_EVENT_PORT_DISCONNECTED;
+        }
 
-            // Console output preserved
-            System.out.println("Weight: " + roundedKg + " kg | Status: " + status);
+        @Override
+        public byte[] getMessageDelimiter() {
+            return protocol.getFrameDelimiter();
+        }
 
-            if (status == 'P' || status == 'T') {
-                logger.info("Stable weight detected: {} kg. Notifying listener.", roundedKg);
-                if (listener != null) {
-                    listener.accept(roundedKg, status);
-                    logger.trace("Listener notified with weight: {} kg, status: '{}'", roundedKg, status);
-                } else {
-                    logger.warn("No listener registered to receive weight data");
-                }
-            } else {
-                logger.debug("Non-stable status '{}', not notifying listener", status);
+        @Override
+        public boolean delimiterIndicatesEndOfMessage() {
+            return true;
+        }
+
+        @Override
+        public void serialEvent(SerialPortEvent event) {
+            if (event.getEventType() == SerialPort.LISTENING_EVENT_PORT_DISCONNECTED) {
+                SerialDispatcher.execute(WeighReader.this::handleDisconnect);
+                return;
             }
 
-        } catch (NumberFormatException e) {
-            logger.error("Failed to parse weight value '{}' from frame: '{}'", valuePart, frame, e);
-            System.err.println("Invalid frame: " + frame);
-        } catch (Exception e) {
-            logger.error("Unexpected error processing frame: '{}'", frame, e);
-            System.err.println("Invalid frame: " + frame);
+            byte[] message = event.getReceivedData();
+            long receivedAt = System.nanoTime();
+            SerialDispatcher.execute(() -> {
+                if (running) {
+                    receivedNanos = receivedAt;
+                    metrics.onBytes(message.length);
+                    if (journal != null) {
+                        journal.append(message, 0, message.length, receivedAt);
+                    }
+                    decoder.accept(message, 0, message.length);
+                }
+            });
         }
     }
 
@@ -231,17 +469,49 @@ public class WeighReader {
         logger.info("Stopping WeighReader...");
         running = false;
 
-        if (port.isOpen()) {
+        if (ingestMode == IngestMode.EVENT) {
+            ((SerialPortDevice) device).getPort().removeDataListener();
+            SerialDispatcher.execute(this::unwatchPorts);
+        } else if (readerThread != null) {
+            // The read loop notices the flag within one read timeout; interrupting also
+            // cuts short a pending reconnect sleep.
+            readerThread.interrupt();
+        }
+
+        if (device.isOpen()) {
             logger.debug("Closing serial port");
-            port.closePort();
+            device.close();
             logger.info("Serial port closed");
         } else {
             logger.debug("Serial port was already closed");
         }
 
+        if (watchdog != null) {
+            watchdog.stop();
+        }
+
         logger.info("WeighReader stopped successfully");
     }
 
+    /**
+     * Waits until no thread of this reader can publish any more, so a replacement can take
+     * over the listener, e.g. as the bus's single writer.
+     */
+    public void awaitTermination(long timeoutMs) throws InterruptedException {
+        if (readerThread != null) {
+            readerThread.join(timeoutMs);
+            return;
+        }
+        if (ingestMode == IngestMode.EVENT) {
+            // Decode tasks queued before stop() run first; later ones see running == false.
+            try {
+                SerialDispatcher.submit(() -> { }).get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                logger.warn("Serial dispatcher did not drain within {} ms", timeoutMs);
+            }
+        }
+    }
+
     // Additional helper methods for logging
 
     public boolean isRunning() {
@@ -250,13 +520,13 @@ public class WeighReader {
     }
 
     public boolean isPortOpen() {
-        boolean open = port != null && port.isOpen();
+        boolean open = device.isOpen();
         logger.trace("isPortOpen() called, returning: {}", open);
         return open;
     }
 
     public String getPortName() {
-        String name = port != null ? port.getSystemPortName() : "null";
+        String name = device.getName();
         logger.trace("getPortName() called, returning: {}", name);
         return name;
     }
@@ -0,0 +1,250 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer, multi-reader ring of weight samples.
+ * <p>
+ * The reader thread publishes primitives into a fixed ring and never waits for anyone. Each
+ * {@link Subscriber} keeps its own sequence cursor and reads at its own pace; one that falls
+ * more than a ring behind skips ahead and counts the samples it missed, so a slow consumer
+ * can never stall ingest.
+ * <p>
+ * Every slot is guarded by a sequence stamp written before and after its data (a seqlock),
+ * so a reader racing the writer detects the overwrite instead of seeing a torn sample.
+ */
+public class WeightBus implements WeightSampleListener {
+
+    private static final Logger logger = LogUtil.getLogger(WeightBus.class);
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long PRESENT_BIT = 1L << 16;
+    private static final long WRITING = -1L;
+
+    private final int mask;
+    private final AtomicLongArray stamps;
+    private final AtomicLongArray samples;
+    private final AtomicLongArray times;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public WeightBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity ring size, rounded up to a power of two
+     */
+    public WeightBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        stamps = new AtomicLongArray(size);
+        samples = new AtomicLongArray(size);
+        times = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            stamps.set(i, WRITING);
+        }
+    }
+
+    /**
+     * Publishes one sample. Must only be called from the single writer thread.
+     */
+    public void publish(int weightKg, char status, long receivedNanos) {
+        long sequence = cursor.get() + 1;
+        int slot = (int) (sequence & mask);
+        stamps.set(slot, WRITING);
+        samples.set(slot, pack(weightKg, status));
+        times.set(slot, receivedNanos);
+        stamps.set(slot, sequence);
+        cursor.set(sequence);
+    }
+
+    /**
+     * Publishes the sample; lets a {@link WeighReader} write straight into the bus.
+     */
+    @Override
+    public void onSample(int weightKg, char status, long nanoTime) {
+        publish(weightKg, status, nanoTime);
+    }
+
+    /**
+     * Returns the sequence of the last published sample, or -1 when none was published.
+     */
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Creates a subscriber that sees samples published from now on.
+     */
+    public Subscriber subscribe(String name) {
+        Subscriber subscriber = new Subscriber(name, cursor.get() + 1);
+        subscribers.add(subscriber);
+        logger.debug("Weight bus subscriber '{}' added", name);
+        return subscriber;
+    }
+
+    public List<Subscriber> getSubscribers() {
+        return subscribers;
+    }
+
+    public static long pack(int weightKg, char status) {
+        return ((long) weightKg << 32) | PRESENT_BIT | status;
+    }
+
+    public static int weightOf(long sample) {
+        return (int) (sample >> 32);
+    }
+
+    public static char statusOf(long sample) {
+        return (char) (sample & 0xFFFF);
+    }
+
+    /**
+     * Receives samples from {@link Subscriber#poll} as primitives.
+     */
+    public interface SampleHandler {
+
+        void onSample(long sequence, int weightKg, char status, long receivedNanos);
+    }
+
+    /**
+     * One independent reader of the bus. Not thread-safe: each subscriber is polled from one
+     * thread at a time.
+     */
+    public final class Subscriber implements AutoCloseable {
+
+        private final String name;
+        private long next;
+        private volatile long dropped;
+        private volatile Thread poller;
+
+        private Subscriber(String name, long next) {
+            this.name = name;
+            this.next = next;
+        }
+
+        /**
+         * Hands up to {@code max} pending samples to {@code handler}, oldest first, and
+         * returns how many were delivered.
+         */
+        public int poll(SampleHandler handler, int max) {
+            int delivered = 0;
+            while (delivered < max && next <= cursor.get()) {
+                if (readAt(next, handler)) {
+                    next++;
+                    delivered++;
+                }
+            }
+            return delivered;
+        }
+
+        /**
+         * Skips to the newest sample and delivers only that one. Returns false when nothing
+         * new was published since the last poll.
+         */
+        public boolean pollLatest(SampleHandler handler) {
+            long latest = cursor.get();
+            if (latest < next) {
+                return false;
+            }
+            while (!readAt(latest, handler)) {
+                latest = cursor.get();
+            }
+            next = latest + 1;
+            return true;
+        }
+
+        /**
+         * Reads the slot for {@code sequence}. Returns false, after moving {@link #next}
+         * forward, when the writer lapped this subscriber.
+         */
+        private boolean readAt(long sequence, SampleHandler handler) {
+            long oldest = cursor.get() - mask;
+            if (sequence < oldest) {
+                skipTo(oldest);
+                return false;
+            }
+
+            int slot = (int) (sequence & mask);
+            if (stamps.get(slot) != sequence) {
+                skipTo(cursor.get() - mask);
+                return false;
+            }
+            long sample = samples.get(slot);
+            long receivedNanos = times.get(slot);
+            if (stamps.get(slot) != sequence) {
+                skipTo(cursor.get() - mask);
+                return false;
+            }
+
+            handler.onSample(sequence, weightOf(sample), statusOf(sample), receivedNanos);
+            return true;
+        }
+
+        private void skipTo(long sequence) {
+            long target = Math.max(sequence, next + 1);
+            dropped += target - next;
+            next = target;
+        }
+
+        /**
+         * Drains this subscriber on its own daemon thread every {@code periodMs}, so a slow
+         * handler only delays itself.
+         */
+        public void startPolling(SampleHandler handler, long periodMs) {
+            Thread thread = new Thread(() -> {
+                long parkNanos = TimeUnit.MILLISECONDS.toNanos(periodMs);
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        poll(handler, Integer.MAX_VALUE);
+                    } catch (RuntimeException e) {
+                        logger.error("Weight bus subscriber '{}' failed: {}", name, e.getMessage(), e);
+                    }
+                    LockSupport.parkNanos(parkNanos);
+                }
+            }, "WeightBus-" + name);
+            thread.setDaemon(true);
+            poller = thread;
+            thread.start();
+        }
+
+        /**
+         * Returns how many published samples this subscriber has not read yet.
+         */
+        public long getLag() {
+            return Math.max(0, cursor.get() + 1 - next);
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void close() {
+            Thread thread = poller;
+            if (thread != null) {
+                thread.interrupt();
+                poller = null;
+            }
+            subscribers.remove(this);
+        }
+    }
+}
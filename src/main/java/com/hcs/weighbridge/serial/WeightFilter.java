@@ -0,0 +1,18 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Smoothing stage between the decoder and everything that consumes weights. Implementations
+ * keep their state in primitive fields and are called from the reader thread only.
+ */
+public interface WeightFilter {
+
+    /**
+     * Feeds one decoded sample and returns the filtered weight, rounded to 5 kg.
+     */
+    int apply(int weightKg);
+
+    /**
+     * Forgets all history, e.g. after the indicator reconnects.
+     */
+    void reset();
+}
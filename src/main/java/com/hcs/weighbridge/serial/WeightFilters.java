@@ -0,0 +1,51 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.model.FilterConfig;
+
+/**
+ * Builds the {@link WeightFilter} described by a {@link FilterConfig}.
+ */
+public final class WeightFilters {
+
+    private WeightFilters() {
+    }
+
+    /**
+     * Returns a new filter, or {@code null} when filtering is off. {@code MEDIAN_EMA} runs the
+     * median first so spikes are removed before they can pull the average.
+     */
+    public static WeightFilter create(FilterConfig cfg) {
+        switch (cfg.getMode()) {
+            case MEDIAN:
+                return new MedianFilter(cfg.getMedianWindow());
+            case EMA:
+                return new EmaFilter(cfg.getEmaAlpha());
+            case MEDIAN_EMA:
+                return new Chain(new MedianFilter(cfg.getMedianWindow()), new EmaFilter(cfg.getEmaAlpha()));
+            default:
+                return null;
+        }
+    }
+
+    private static final class Chain implements WeightFilter {
+
+        private final WeightFilter first;
+        private final WeightFilter second;
+
+        Chain(WeightFilter first, WeightFilter second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int apply(int weightKg) {
+            return second.apply(first.apply(weightKg));
+        }
+
+        @Override
+        public void reset() {
+            first.reset();
+            second.reset();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Receives weight samples as primitives, so delivering a sample allocates nothing.
+ */
+@FunctionalInterface
+public interface WeightSampleListener {
+
+    /**
+     * @param weightKg weight after filtering, rounded to 5 kg
+     * @param status   indicator status character
+     * @param nanoTime {@link System#nanoTime()} when the bytes carrying the frame were read
+     */
+    void onSample(int weightKg, char status, long nanoTime);
+}
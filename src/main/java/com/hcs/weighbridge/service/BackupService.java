@@ -19,16 +19,17 @@ import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
+import javax.sql.DataSource;
 
 public class BackupService {
 
     private static final Logger logger = LogUtil.getLogger(BackupService.class);
     private static final String BACKUP_DIR = "backups";
     private final ConfigDao configDao;
-    private final Connection connection;
+    private final DataSource dataSource;
 
-    public BackupService(Connection connection, ConfigDao configDao) {
-        this.connection = connection;
+    public BackupService(DataSource dataSource, ConfigDao configDao) {
+        this.dataSource = dataSource;
         this.configDao = configDao;
         ensureBackupDirExists();
     }
@@ -50,11 +51,17 @@ public class BackupService {
         String filename = "backup_" + timestamp + ".sql";
         File backupFile = new File(BACKUP_DIR, filename);
 
-        try (FileWriter writer = new FileWriter(backupFile)) {
-            exportTable(writer, "users");
-            exportTable(writer, "app_config");
-            exportTable(writer, "company_info");
-            exportTable(writer, "weigh_data");
+        // One read transaction gives all tables the same InnoDB snapshot without blocking
+        // weighings saved while the backup runs.
+        try (FileWriter writer = new FileWriter(backupFile);
+             Connection connection = dataSource.getConnection()) {
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setAutoCommit(false);
+            exportTable(connection, writer, "users");
+            exportTable(connection, writer, "app_config");
+            exportTable(connection, writer, "company_info");
+            exportTable(connection, writer, "weigh_data");
+            connection.commit();
 
             logger.info("Backup completed successfully: {}", backupFile.getAbsolutePath());
             configDao.setLastBackupDate(LocalDate.now().toString());
@@ -65,7 +72,7 @@ public class BackupService {
         }
     }
 
-    private void exportTable(FileWriter writer, String tableName) throws Exception {
+    private void exportTable(Connection connection, FileWriter writer, String tableName) throws Exception {
         writer.write("-- Table: " + tableName + "\n");
         String query = "SELECT * FROM " + tableName;
 
@@ -104,6 +111,7 @@ public class BackupService {
         if (DatabaseConfig.isTableEmpty("weigh_data")) {
             logger.info("weigh_data table is empty. Proceeding with full restore.");
             DatabaseConfig.executeScript(backupFile.getAbsolutePath());
+            DatabaseConfig.rebuildDerivedData();
         } else {
             logger.warn("weigh_data is NOT empty. Skipping restore to prevent data overwrite.");
 
@@ -116,7 +124,8 @@ public class BackupService {
         logger.info("Selective restore started. Skipping weigh_data: {}", skipWeighData);
 
         try (java.util.Scanner scanner = new java.util.Scanner(backupFile)) {
-            try (Statement stmt = connection.createStatement()) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement stmt = connection.createStatement()) {
                 while (scanner.hasNextLine()) {
                     String line = scanner.nextLine().trim();
                     if (line.isEmpty() || line.startsWith("--"))
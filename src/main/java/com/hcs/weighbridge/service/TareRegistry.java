@@ -0,0 +1,258 @@
+package com.hcs.weighbridge.service;
+
+import com.hcs.weighbridge.dao.WeighDataDao;
+import com.hcs.weighbridge.model.Record;
+import com.hcs.weighbridge.model.StoredTareConfig;
+import com.hcs.weighbridge.util.LogUtil;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory history of measured empty weights per lorry, used to offer single-pass
+ * "stored tare" weighing to regular vehicles.
+ * <p>
+ * The tare of a completed two-pass weighing is the lighter of its two weights. The registry
+ * is filled once from recent completed records and then updated as weighings complete, so
+ * lookups never touch the database. Stored-tare transactions are not fed back, so a stored
+ * tare is always based on real empty weighings.
+ */
+public class TareRegistry {
+
+    private static final Logger logger = LogUtil.getLogger(TareRegistry.class);
+
+    /**
+     * Tares remembered per lorry, newest first.
+     */
+    public static final int HISTORY_SIZE = 5;
+    private static final int LOAD_LIMIT = 20_000;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final WeighDataDao dao;
+    private final StoredTareConfig config;
+    private final Map<String, TareHistory> histories = new ConcurrentHashMap<>();
+
+    public TareRegistry(WeighDataDao dao, StoredTareConfig config) {
+        this.dao = dao;
+        this.config = config;
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Builds the registry from the most recent completed weighings. Weighings recorded while
+     * this runs are kept: the loaded history is merged in afterwards and can only fill slots
+     * the live history has not taken with newer tares.
+     */
+    public void load() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        List<Record> records = dao.getCompletedWeighingsForTare(LOAD_LIMIT);
+        Map<String, TareHistory> loaded = new HashMap<>();
+        // Oldest first, so each history ends up holding the newest tares.
+        for (int i = records.size() - 1; i >= 0; i--) {
+            Record r = records.get(i);
+            LocalDateTime weighedAt = parse(r.getDateOut(), r.getTimeOut());
+            String lorryNo = r.getLorryNumber();
+            if (weighedAt != null && r.getFirstWeight() > 0 && r.getSecondWeight() > 0
+                    && lorryNo != null && !lorryNo.trim().isEmpty()) {
+                loaded.computeIfAbsent(key(lorryNo), k -> new TareHistory())
+                        .add(r.getId(), Math.min(r.getFirstWeight(), r.getSecondWeight()), weighedAt);
+            }
+        }
+        for (Map.Entry<String, TareHistory> entry : loaded.entrySet()) {
+            TareHistory live = histories.putIfAbsent(entry.getKey(), entry.getValue());
+            if (live != null) {
+                live.merge(entry.getValue());
+            }
+        }
+        logger.info("Tare registry loaded {} lorries from {} weighings", histories.size(), records.size());
+    }
+
+    /**
+     * Adds the measured tare of completed weighing {@code recordId}.
+     */
+    public void record(long recordId, String lorryNo, int tareKg, LocalDateTime weighedAt) {
+        if (lorryNo == null || lorryNo.trim().isEmpty()) {
+            return;
+        }
+        histories.computeIfAbsent(key(lorryNo), k -> new TareHistory()).add(recordId, tareKg, weighedAt);
+    }
+
+    /**
+     * Returns the stored tare of {@code lorryNo} if it has at least the configured number of
+     * tares within the age limit and they agree within the tolerance, otherwise {@code null}.
+     */
+    public StoredTare find(String lorryNo) {
+        if (!config.isEnabled() || lorryNo == null) {
+            return null;
+        }
+        TareHistory history = histories.get(key(lorryNo));
+        if (history == null) {
+            return null;
+        }
+        LocalDateTime oldest = LocalDateTime.now().minusDays(config.getMaxAgeDays());
+        return history.evaluate(oldest, config.getMinSamples(), config.getToleranceKg());
+    }
+
+    private static String key(String lorryNo) {
+        return lorryNo.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static LocalDateTime parse(String date, String time) {
+        if (date == null || time == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(date + " " + time, DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fixed ring of the newest tares of one lorry.
+     */
+    private static final class TareHistory {
+
+        private final long[] recordIds = new long[HISTORY_SIZE];
+        private final int[] tares = new int[HISTORY_SIZE];
+        private final LocalDateTime[] times = new LocalDateTime[HISTORY_SIZE];
+        private int count;
+        private int next;
+
+        synchronized void add(long recordId, int tareKg, LocalDateTime weighedAt) {
+            for (int i = 0; i < count; i++) {
+                if (recordIds[i] == recordId) {
+                    return;
+                }
+            }
+            recordIds[next] = recordId;
+            tares[next] = tareKg;
+            times[next] = weighedAt;
+            next = (next + 1) % HISTORY_SIZE;
+            if (count < HISTORY_SIZE) {
+                count++;
+            }
+        }
+
+        /**
+         * Adds the tares of {@code older} without evicting anything newer than them: of both
+         * histories only the newest {@link #HISTORY_SIZE} tares are kept.
+         */
+        synchronized void merge(TareHistory older) {
+            List<Integer> order = new ArrayList<>();
+            long[] ids = new long[HISTORY_SIZE * 2];
+            int[] kgs = new int[HISTORY_SIZE * 2];
+            LocalDateTime[] at = new LocalDateTime[HISTORY_SIZE * 2];
+            int n = 0;
+            synchronized (older) {
+                for (int i = 0; i < older.count; i++) {
+                    ids[n] = older.recordIds[i];
+                    kgs[n] = older.tares[i];
+                    at[n] = older.times[i];
+                    order.add(n++);
+                }
+            }
+            int loaded = n;
+            for (int i = 0; i < count; i++) {
+                if (indexOf(ids, loaded, recordIds[i]) >= 0) {
+                    continue;
+                }
+                ids[n] = recordIds[i];
+                kgs[n] = tares[i];
+                at[n] = times[i];
+                order.add(n++);
+            }
+            order.sort((a, b) -> at[a].equals(at[b]) ? Long.compare(ids[a], ids[b]) : at[a].compareTo(at[b]));
+
+            count = 0;
+            next = 0;
+            int start = Math.max(0, order.size() - HISTORY_SIZE);
+            for (int i = start; i < order.size(); i++) {
+                int e = order.get(i);
+                add(ids[e], kgs[e], at[e]);
+            }
+        }
+
+        private static int indexOf(long[] ids, int length, long id) {
+            for (int i = 0; i < length; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        synchronized StoredTare evaluate(LocalDateTime oldest, int minSamples, int toleranceKg) {
+            int[] recent = new int[count];
+            int n = 0;
+            LocalDateTime latest = null;
+            for (int i = 0; i < count; i++) {
+                if (!times[i].isBefore(oldest)) {
+                    recent[n++] = tares[i];
+                    if (latest == null || times[i].isAfter(latest)) {
+                        latest = times[i];
+                    }
+                }
+            }
+            if (n == 0 || n < minSamples) {
+                return null;
+            }
+            Arrays.sort(recent, 0, n);
+            if (recent[n - 1] - recent[0] > toleranceKg) {
+                return null;
+            }
+            return new StoredTare(recent[n / 2], n, recent[n - 1] - recent[0], latest);
+        }
+    }
+
+    /**
+     * A tare consistent enough to weigh a vehicle in one pass.
+     */
+    public static final class StoredTare {
+
+        private final int tareKg;
+        private final int samples;
+        private final int spreadKg;
+        private final LocalDateTime lastWeighed;
+
+        StoredTare(int tareKg, int samples, int spreadKg, LocalDateTime lastWeighed) {
+            this.tareKg = tareKg;
+            this.samples = samples;
+            this.spreadKg = spreadKg;
+            this.lastWeighed = lastWeighed;
+        }
+
+        /**
+         * Median of the recent tares.
+         */
+        public int getTareKg() {
+            return tareKg;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public int getSpreadKg() {
+            return spreadKg;
+        }
+
+        public LocalDateTime getLastWeighed() {
+            return lastWeighed;
+        }
+    }
+}
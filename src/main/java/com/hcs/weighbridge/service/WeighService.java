@@ -2,6 +2,7 @@ package com.hcs.weighbridge.service;
 
 import com.hcs.weighbridge.constants.RecordStatus;
 import com.hcs.weighbridge.dao.WeighDataDao;
+import com.hcs.weighbridge.model.CaptureStats;
 import com.hcs.weighbridge.model.Record;
 
 import java.time.LocalDateTime;
@@ -11,13 +12,19 @@ import java.util.ArrayList;
 public class WeighService {
 
     private final WeighDataDao dao;
+    private final TareRegistry tareRegistry;
     private Record activeRecord;
     private Record fullRecord;
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
 
     public WeighService(WeighDataDao dao) {
+        this(dao, null);
+    }
+
+    public WeighService(WeighDataDao dao, TareRegistry tareRegistry) {
         this.dao = dao;
+        this.tareRegistry = tareRegistry;
     }
 
     public void startTransaction(String lorryNo, String customerName,
@@ -32,6 +39,20 @@ public class WeighService {
     }
 
     public void saveFirstWeight(int weight) {
+        saveFirstWeight(weight, null);
+    }
+
+    /**
+     * Saves the first weight with the statistics of the samples it was taken from.
+     */
+    public void saveFirstWeight(int weight, CaptureStats stats) {
+        saveFirstWeight(weight, stats, 0);
+    }
+
+    /**
+     * As above, recording that scale number {@code lane} (counted from 1) took the weight.
+     */
+    public void saveFirstWeight(int weight, CaptureStats stats, int lane) {
         if (activeRecord == null) {
             return;
         }
@@ -43,11 +64,21 @@ public class WeighService {
         activeRecord.setFirstWeight(weight);
         activeRecord.setDateIn(date);
         activeRecord.setTimeIn(time);
+        activeRecord.setFirstCaptureStats(stats);
+        activeRecord.setFirstLane(lane);
 
-        dao.saveFirstWeight(activeRecord.getId(), weight, date, time);
+        dao.saveFirstWeight(activeRecord.getId(), weight, date, time, stats, lane);
     }
 
     public void saveSecondWeight(int weight) {
+        saveSecondWeight(weight, null);
+    }
+
+    public void saveSecondWeight(int weight, CaptureStats stats) {
+        saveSecondWeight(weight, stats, 0);
+    }
+
+    public void saveSecondWeight(int weight, CaptureStats stats, int lane) {
         if (activeRecord == null) {
             return;
         }
@@ -62,13 +93,65 @@ public class WeighService {
         activeRecord.setDateOut(dateOut);
         activeRecord.setTimeOut(timeOut);
         activeRecord.setNetWeight(netWeight);
+        activeRecord.setSecondCaptureStats(stats);
+        activeRecord.setSecondLane(lane);
 
-        dao.saveSecondWeightAndComplete(activeRecord.getId(), weight, dateOut, timeOut);
+        dao.saveSecondWeightAndComplete(activeRecord.getId(), weight, dateOut, timeOut, stats, lane);
+
+        if (tareRegistry != null) {
+            tareRegistry.record(activeRecord.getId(), activeRecord.getLorryNumber(),
+                    Math.min(weight, activeRecord.getFirstWeight()), now);
+        }
 
         fullRecord = activeRecord;
         activeRecord = null;
     }
 
+    /**
+     * Returns the stored tare of {@code lorryNo}, or {@code null} if single-pass weighing is
+     * disabled or the lorry's tare history is too short, too old or inconsistent.
+     */
+    public TareRegistry.StoredTare findStoredTare(String lorryNo) {
+        return tareRegistry == null ? null : tareRegistry.find(lorryNo);
+    }
+
+    /**
+     * Weighs a loaded lorry in one pass, using its stored tare as the first weight. The
+     * completed record becomes the full record, as after {@link #saveSecondWeight(int)}.
+     */
+    public void saveStoredTareTransaction(String lorryNo, String customerName, String productName,
+                                          String driverName, TareRegistry.StoredTare storedTare,
+                                          int grossWeight, CaptureStats stats, int lane) {
+        LocalDateTime now = LocalDateTime.now();
+        String date = now.format(dateFormatter);
+        String time = now.format(timeFormatter);
+        LocalDateTime tareWeighed = storedTare.getLastWeighed();
+        int tare = storedTare.getTareKg();
+
+        Record record = new Record(lorryNo);
+        record.setCustomerName(customerName);
+        record.setProductName(productName);
+        record.setDriverName(driverName);
+        record.setFirstWeight(tare);
+        record.setSecondWeight(grossWeight);
+        record.setNetWeight(Math.abs(grossWeight - tare));
+        record.setDateIn(date);
+        record.setTimeIn(time);
+        record.setDateOut(date);
+        record.setTimeOut(time);
+        record.setSecondCaptureStats(stats);
+        record.setStoredTare(true);
+        if (tareWeighed != null) {
+            record.setStoredTareWeighed(tareWeighed.format(dateFormatter) + " " + tareWeighed.format(timeFormatter));
+        }
+        record.setSecondLane(lane);
+
+        dao.createStoredTareTransaction(record, tareWeighed, stats, lane);
+
+        activeRecord = null;
+        fullRecord = record;
+    }
+
     public ArrayList<Record> getAllPendingRecords() {
         return dao.getAllRecordsFromStatus(RecordStatus.PENDING);
     }
@@ -81,22 +164,34 @@ public class WeighService {
         return dao.getRecentCompletedRecords(limit);
     }
 
-    public ArrayList<Record> getCompletedRecordsWithPagination(int offset, int limit) {
-        return dao.getCompletedRecordsWithPagination(offset, limit);
+    public ArrayList<Record> getCompletedRecordsBefore(long beforeId, int limit) {
+        return dao.getCompletedRecordsBefore(beforeId, limit);
     }
 
     public int getCompletedRecordsCount() {
         return dao.getCompletedRecordsCount();
     }
 
-    public ArrayList<Record> getFilteredCompletedRecords(String lorryNo, String ticketNo, String fromDate, String toDate, int offset, int limit) {
-        return dao.getFilteredCompletedRecords(lorryNo, ticketNo, fromDate, toDate, offset, limit);
+    public ArrayList<Record> getFilteredCompletedRecordsBefore(String lorryNo, String ticketNo, String fromDate, String toDate, long beforeId, int limit) {
+        return dao.getFilteredCompletedRecordsBefore(lorryNo, ticketNo, fromDate, toDate, beforeId, limit);
+    }
+
+    public ArrayList<Record> getFilteredCompletedRecordsAfter(String lorryNo, String ticketNo, String fromDate, String toDate, long afterId, int limit) {
+        return dao.getFilteredCompletedRecordsAfter(lorryNo, ticketNo, fromDate, toDate, afterId, limit);
+    }
+
+    public long findLatestFilteredCompletedId(String lorryNo, String ticketNo, String fromDate, String toDate, String date) {
+        return dao.findLatestFilteredCompletedId(lorryNo, ticketNo, fromDate, toDate, date);
     }
 
     public int getFilteredCompletedRecordsCount(String lorryNo, String ticketNo, String fromDate, String toDate) {
         return dao.getFilteredCompletedRecordsCount(lorryNo, ticketNo, fromDate, toDate);
     }
 
+    public int getFilteredCompletedRecordsCountAfter(String lorryNo, String ticketNo, String fromDate, String toDate, long afterId) {
+        return dao.getFilteredCompletedRecordsCountAfter(lorryNo, ticketNo, fromDate, toDate, afterId);
+    }
+
     public Record loadRecord(long id) {
         activeRecord = dao.findById(id);
         return activeRecord;
@@ -0,0 +1,217 @@
+package com.hcs.weighbridge.ui;
+
+import com.hcs.weighbridge.serial.LatencyHistogram;
+import com.hcs.weighbridge.serial.ScaleLane;
+import com.hcs.weighbridge.serial.SerialMetrics;
+import com.hcs.weighbridge.serial.WeighReader;
+import com.hcs.weighbridge.serial.WeightBus;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows the live {@link SerialMetrics} of one scale lane, refreshed once a second.
+ */
+public class DiagnosticsController {
+
+    private static final int HISTORY_SECONDS = 60;
+
+    @FXML
+    private Label portLabel;
+    @FXML
+    private Label uptimeLabel;
+    @FXML
+    private Label connectsLabel;
+    @FXML
+    private Label failuresLabel;
+    @FXML
+    private Label staleLabel;
+    @FXML
+    private Label bytesRateLabel;
+    @FXML
+    private Label framesRateLabel;
+    @FXML
+    private Label framesLabel;
+    @FXML
+    private Label subscribersLabel;
+    @FXML
+    private Label gapLabel;
+    @FXML
+    private Label latencyLabel;
+    @FXML
+    private TableView<String[]> histogramTable;
+    @FXML
+    private TableColumn<String[], String> bucketColumn;
+    @FXML
+    private TableColumn<String[], String> gapColumn;
+    @FXML
+    private TableColumn<String[], String> latencyColumn;
+    @FXML
+    private Button closeButton;
+
+    private final ObservableList<String[]> histogramRows = FXCollections.observableArrayList();
+    private final ArrayDeque<Long> byteRates = new ArrayDeque<>();
+    private final ArrayDeque<Long> frameRates = new ArrayDeque<>();
+
+    private ScaleLane lane;
+    private SerialMetrics metrics;
+    private Timeline refreshTimeline;
+    private long lastBytes;
+    private long lastFrames;
+    private long lastSampleNanos;
+
+    public void init(ScaleLane lane) {
+        this.lane = lane;
+        this.metrics = lane.getMetrics();
+
+        bucketColumn.setCellValueFactory(c -> new SimpleStringProperty(c.getValue()[0]));
+        gapColumn.setCellValueFactory(c -> new SimpleStringProperty(c.getValue()[1]));
+        latencyColumn.setCellValueFactory(c -> new SimpleStringProperty(c.getValue()[2]));
+        histogramTable.setItems(histogramRows);
+
+        lastBytes = metrics.getBytes();
+        lastFrames = metrics.getFrames();
+        lastSampleNanos = System.nanoTime();
+        refresh();
+
+        refreshTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        refreshTimeline.setCycleCount(Timeline.INDEFINITE);
+        refreshTimeline.play();
+
+        closeButton.setOnAction(e -> {
+            refreshTimeline.stop();
+            ((Stage) closeButton.getScene().getWindow()).close();
+        });
+    }
+
+    /**
+     * Stops the refresh timer; called when the window is closed by other means.
+     */
+    public void stop() {
+        if (refreshTimeline != null) {
+            refreshTimeline.stop();
+        }
+    }
+
+    private void refresh() {
+        WeighReader reader = lane.getReader();
+        if (reader != null) {
+            portLabel.setText(reader.getPortName() + (reader.isPortOpen() ? " (open)" : " (closed)"));
+        } else {
+            portLabel.setText("Not configured");
+        }
+        uptimeLabel.setText(formatUptime(metrics.getUptimeNanos()));
+        connectsLabel.setText(metrics.getConnects() + " / " + metrics.getReconnects());
+        failuresLabel.setText(metrics.getOpenFailures() + " / " + metrics.getDisconnects());
+        staleLabel.setText(String.format("%d / %.1f s%s", metrics.getStalePeriods(),
+                metrics.getStaleNanos() / 1e9, lane.isStale() ? " (STALE now)" : ""));
+
+        long now = System.nanoTime();
+        long bytes = metrics.getBytes();
+        long frames = metrics.getFrames();
+        double seconds = Math.max(1e-3, (now - lastSampleNanos) / 1e9);
+        push(byteRates, Math.round((bytes - lastBytes) / seconds));
+        push(frameRates, Math.round((frames - lastFrames) / seconds));
+        lastBytes = bytes;
+        lastFrames = frames;
+        lastSampleNanos = now;
+
+        bytesRateLabel.setText(formatRate(byteRates));
+        framesRateLabel.setText(formatRate(frameRates));
+
+        long invalid = metrics.getInvalidFrames();
+        long all = frames + invalid;
+        framesLabel.setText(String.format("%d / %d (%.2f%%)", frames, invalid, all == 0 ? 0.0 : 100.0 * invalid / all));
+
+        subscribersLabel.setText(formatSubscribers(lane.getBus()));
+        gapLabel.setText(formatPercentiles(metrics.getFrameGaps()));
+        latencyLabel.setText(formatPercentiles(metrics.getScreenLatency()));
+        refreshHistogram();
+    }
+
+    private void refreshHistogram() {
+        LatencyHistogram gaps = metrics.getFrameGaps();
+        LatencyHistogram latency = metrics.getScreenLatency();
+        histogramRows.clear();
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            long gapCount = gaps.getCount(i);
+            long latencyCount = latency.getCount(i);
+            if (gapCount == 0 && latencyCount == 0) {
+                continue;
+            }
+            histogramRows.add(new String[]{
+                    formatMicros(LatencyHistogram.bucketUpperMicros(i)),
+                    String.valueOf(gapCount),
+                    String.valueOf(latencyCount)
+            });
+        }
+    }
+
+    private static void push(ArrayDeque<Long> history, long value) {
+        history.addLast(value);
+        if (history.size() > HISTORY_SECONDS) {
+            history.removeFirst();
+        }
+    }
+
+    private static String formatRate(ArrayDeque<Long> history) {
+        long sum = 0;
+        long peak = 0;
+        for (long value : history) {
+            sum += value;
+            peak = Math.max(peak, value);
+        }
+        long avg = history.isEmpty() ? 0 : sum / history.size();
+        long current = history.isEmpty() ? 0 : history.peekLast();
+        return current + " / " + avg + " / " + peak;
+    }
+
+    private static String formatSubscribers(WeightBus bus) {
+        StringBuilder sb = new StringBuilder();
+        for (WeightBus.Subscriber subscriber : bus.getSubscribers()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(subscriber.getName()).append(' ')
+                    .append(subscriber.getLag()).append(" / ").append(subscriber.getDropped());
+        }
+        return sb.length() > 0 ? sb.toString() : "-";
+    }
+
+    private static String formatPercentiles(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "-";
+        }
+        return "< " + formatMicros(histogram.percentileMicros(0.50))
+                + " / < " + formatMicros(histogram.percentileMicros(0.95))
+                + " / < " + formatMicros(histogram.percentileMicros(0.99))
+                + " / " + formatMicros(TimeUnit.NANOSECONDS.toMicros(histogram.getMaxNanos()));
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros < 1000) {
+            return micros + " us";
+        }
+        if (micros < 1_000_000) {
+            return String.format("%.1f ms", micros / 1000.0);
+        }
+        return String.format("%.2f s", micros / 1_000_000.0);
+    }
+
+    private static String formatUptime(long nanos) {
+        long totalSeconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+        return String.format("%02d:%02d:%02d", totalSeconds / 3600, (totalSeconds / 60) % 60, totalSeconds % 60);
+    }
+}
@@ -17,7 +17,6 @@ import javafx.stage.Stage;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.sql.Connection;
 
 import static com.hcs.weighbridge.util.UiUtils.showToast;
 
@@ -99,8 +98,7 @@ public class LoginController {
         }
 
         try {
-            Connection connection = DatabaseConfig.getConnection();
-            UserDao userDao = new UserDao(connection);
+            UserDao userDao = new UserDao(DatabaseConfig.getDataSource());
 
             if (userDao.validateUser(username, password)) {
                 com.hcs.weighbridge.model.User user = userDao.findByUsername(username);
@@ -6,18 +6,28 @@ import com.hcs.weighbridge.constants.PrintMode;
 import com.hcs.weighbridge.dao.ConfigDao;
 import com.hcs.weighbridge.dao.UserDao;
 import com.hcs.weighbridge.dao.CompanyDao;
+import com.hcs.weighbridge.model.AutoCaptureConfig;
+import com.hcs.weighbridge.model.CaptureStats;
 import com.hcs.weighbridge.model.Record;
 import com.hcs.weighbridge.model.SerialConfig;
+import com.hcs.weighbridge.model.StabilityConfig;
 import com.hcs.weighbridge.model.CompanyInfo;
 import com.hcs.weighbridge.model.User;
-import com.hcs.weighbridge.serial.WeighReader;
+import com.hcs.weighbridge.serial.AutoCaptureTrigger;
+import com.hcs.weighbridge.serial.CaptureWindow;
+import com.hcs.weighbridge.serial.ScaleLane;
+import com.hcs.weighbridge.serial.ScaleRegistry;
+import com.hcs.weighbridge.serial.StabilityDetector;
+import com.hcs.weighbridge.serial.WeightBus;
 import com.hcs.weighbridge.service.BackupService;
 import com.hcs.weighbridge.service.PrintService;
+import com.hcs.weighbridge.service.TareRegistry;
 import com.hcs.weighbridge.service.WeighService;
 import com.hcs.weighbridge.util.LogUtil;
 import com.hcs.weighbridge.util.SystemUtils;
 import com.hcs.weighbridge.util.UiScaler;
 import com.hcs.weighbridge.util.UiUtils;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.beans.property.SimpleStringProperty;
@@ -37,6 +47,8 @@ import org.apache.logging.log4j.Logger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static com.hcs.weighbridge.util.UiUtils.showToast;
 
@@ -83,6 +95,10 @@ public class MainController {
     private Button backupButton;
     @FXML
     private Button recordsButton;
+    @FXML
+    private Button diagnosticsButton;
+    @FXML
+    private ComboBox<ScaleLane> laneCombo;
 
     private UiModel model;
     private WeighService weighService;
@@ -92,9 +108,28 @@ public class MainController {
     private com.hcs.weighbridge.model.User currentUser;
     private UiScaler uiScaler;
 
+    private ScaleRegistry scaleRegistry;
+    private volatile ScaleLane activeLane;
+    private LiveWeightRenderer liveWeightTimer;
+
+    private AutoCaptureConfig autoCaptureConfig;
+    private AutoCaptureTrigger autoCapture;
+    /**
+     * Set while a weighing is being saved, manually or by auto-capture, so only one runs.
+     */
+    private final AtomicBoolean saveInFlight = new AtomicBoolean();
+    private volatile String enteredLorry = "";
+    private volatile long lorryEditedNanos;
+
     private final ObservableList<Record> recentRecords = FXCollections.observableArrayList();
     private final ObservableList<Record> completeRecords = FXCollections.observableArrayList();
 
+    /**
+     * Auto-capture waits this long after the last keystroke in the lorry field, so a number
+     * still being typed is never committed.
+     */
+    private static final long LORRY_SETTLE_NANOS = 2_000_000_000L;
+
     private enum Phase {
         IDLE,
         FIRST_WEIGHT_DONE,
@@ -110,7 +145,7 @@ public class MainController {
         this.model = model;
         this.weighService = weighService;
         this.configDao = configDao;
-        this.companyDao = new CompanyDao(DatabaseConfig.getConnection());
+        this.companyDao = new CompanyDao(DatabaseConfig.getDataSource());
         this.backupService = backupService;
         this.currentUser = currentUser;
 
@@ -120,6 +155,7 @@ public class MainController {
         setupTables();
         loadTables();
         bindUi();
+        startLiveWeightRenderer();
         javafx.application.Platform.runLater(() -> {
             applyScaling();
             if (rootPane != null && rootPane.getScene() != null) {
@@ -135,11 +171,27 @@ public class MainController {
             backupButton.setManaged(isAdmin);
             backupButton.setOnAction(e -> openBackupSettings());
         }
+
+        if (diagnosticsButton != null) {
+            boolean isAdmin = currentUser != null && currentUser.getRole() == com.hcs.weighbridge.model.Role.ADMIN;
+            diagnosticsButton.setVisible(isAdmin);
+            diagnosticsButton.setManaged(isAdmin);
+            diagnosticsButton.setOnAction(e -> openDiagnostics());
+        }
         
         if (recordsButton != null) {
             recordsButton.setOnAction(e -> openRecordsScreen());
         }
 
+        lorryField.textProperty().addListener((obs, oldText, newText) -> {
+            enteredLorry = newText == null ? "" : newText.trim();
+            lorryEditedNanos = System.nanoTime();
+        });
+
+        if (laneCombo != null) {
+            laneCombo.valueProperty().addListener((obs, oldLane, newLane) -> switchLane(newLane));
+        }
+
         newButton.setOnAction(e -> resetRecord());
         saveButton.setOnAction(e -> saveRecord());
         printFirstButton.setOnAction(e -> printFirstTicket());
@@ -219,10 +271,13 @@ public class MainController {
             if (weighService != null) {
                 weighService = null;
             }
-            WeighReader reader = MainApp.getWeighReader();
-            if (reader != null) {
-                reader.stop();
+            if (scaleRegistry != null) {
+                scaleRegistry.stopAll();
+            }
+            if (liveWeightTimer != null) {
+                liveWeightTimer.stop();
             }
+            stopAutoCapture();
 
             Stage currentStage = (Stage) rootPane.getScene().getWindow();
             currentStage.close();
@@ -263,6 +318,31 @@ public class MainController {
         }
     }
 
+    private void openDiagnostics() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/main/diagnostics.fxml"));
+            Parent root = loader.load();
+
+            DiagnosticsController controller = loader.getController();
+            controller.init(activeLane);
+
+            Scene scene = new Scene(root);
+            Stage stage = new Stage();
+            stage.setTitle("Serial Diagnostics - " + activeLane.getName());
+            stage.initModality(Modality.NONE);
+            stage.setScene(scene);
+            stage.setOnHidden(e -> controller.stop());
+            stage.show();
+
+        } catch (Exception e) {
+            logger.error("Failed to open diagnostics: {}", e.getMessage(), e);
+            showToast((Stage) rootPane.getScene().getWindow(),
+                    rootPane,
+                    "Failed to open diagnostics: " + e.getMessage(),
+                    false);
+        }
+    }
+
     private void openRecordsScreen() {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/main/records.fxml"));
@@ -452,8 +532,8 @@ public class MainController {
             Parent settingsRoot = loader.load();
 
             SettingsController controller = loader.getController();
-            UserDao userDao = new UserDao(DatabaseConfig.getConnection());
-            CompanyDao companyDao = new CompanyDao(DatabaseConfig.getConnection());
+            UserDao userDao = new UserDao(DatabaseConfig.getDataSource());
+            CompanyDao companyDao = new CompanyDao(DatabaseConfig.getDataSource());
             controller.setDependencies(configDao, userDao, companyDao, this, currentUser);
 
             Scene scene = new Scene(settingsRoot);
@@ -492,29 +572,288 @@ public class MainController {
         }
     }
 
-    public void restartWeighReader(SerialConfig cfg) {
-        WeighReader oldReader = MainApp.getWeighReader();
-        if (oldReader != null) {
-            oldReader.stop();
+    /**
+     * Starts one lane per configured scale, each with its own serial settings.
+     */
+    public void startScales() {
+        scaleRegistry = MainApp.getScaleRegistry();
+        scaleRegistry.resize(configDao.getScaleCount());
+        for (ScaleLane lane : scaleRegistry.getLanes()) {
+            restartWeighReader(lane.getIndex(), configDao.loadSerialConfig(lane.getIndex()));
+        }
+        autoCaptureConfig = configDao.loadAutoCaptureConfig();
+        refreshLaneSelector();
+    }
+
+    /**
+     * Adds or removes lanes to match {@code count}, starting the new ones.
+     */
+    public void applyScaleCount(int count) {
+        for (ScaleLane lane : scaleRegistry.resize(count)) {
+            restartWeighReader(lane.getIndex(), configDao.loadSerialConfig(lane.getIndex()));
+        }
+        refreshLaneSelector();
+    }
+
+    public void restartWeighReader(int laneIndex, SerialConfig cfg) {
+        ScaleLane lane = scaleRegistry.getLane(laneIndex);
+        lane.restart(cfg,
+                configDao.loadStabilityConfig(),
+                configDao.loadFilterConfig(),
+                configDao.getStaleAfterMs(),
+                configDao.isFrameJournalEnabled(),
+                configDao.getFrameJournalSizeMb());
+    }
+
+    /**
+     * Stops the reader of lane {@code laneIndex}, releasing its port, and returns whether
+     * the lane exists. Waits for the port, so call it from a worker thread. Restart it with
+     * {@link #restartWeighReader(int, SerialConfig)}.
+     */
+    public boolean pauseWeighReader(int laneIndex) {
+        if (scaleRegistry == null || laneIndex >= scaleRegistry.size()) {
+            return false;
+        }
+        scaleRegistry.getLane(laneIndex).stop();
+        return true;
+    }
+
+    public int getActiveLaneIndex() {
+        ScaleLane lane = activeLane;
+        return lane != null ? lane.getIndex() : 0;
+    }
+
+    private void refreshLaneSelector() {
+        List<ScaleLane> lanes = scaleRegistry.getLanes();
+        int selected = Math.min(getActiveLaneIndex(), lanes.size() - 1);
+        activeLane = lanes.get(selected);
+
+        if (laneCombo == null) {
+            followAutoCapture();
+            return;
         }
+        boolean multiple = lanes.size() > 1;
+        laneCombo.setVisible(multiple);
+        laneCombo.setManaged(multiple);
+        laneCombo.getItems().setAll(lanes);
+        laneCombo.setValue(activeLane);
+        followAutoCapture();
+    }
 
-        WeighReader newReader = new WeighReader(
-                cfg,
-                (weight, status) -> Platform.runLater(() -> updateLiveWeight(weight, status)));
+    /**
+     * Puts {@code lane} on screen. Refused while a pending record is loaded or a save is
+     * running: the open transaction and the live weight on screen belong to one deck, and its
+     * second weight must not come from another.
+     */
+    private void switchLane(ScaleLane lane) {
+        if (lane == null || lane == activeLane) {
+            return;
+        }
+        if (weighService.hasFirstWeight() || saveInFlight.get()) {
+            ScaleLane current = activeLane;
+            Platform.runLater(() -> laneCombo.setValue(current));
+            showToast((Stage) rootPane.getScene().getWindow(),
+                    rootPane,
+                    "Finish or clear the current record before switching scales",
+                    false);
+            return;
+        }
+        activeLane = lane;
+        logger.info("Switched to {}", lane.getName());
+        followAutoCapture();
+    }
 
-        MainApp.setWeighReader(newReader);
+    /**
+     * Keeps the auto-capture trigger, when enabled, attached to the lane on screen.
+     */
+    private void followAutoCapture() {
+        ScaleLane lane = activeLane;
+        if (autoCaptureConfig == null || !autoCaptureConfig.isEnabled() || lane == null) {
+            return;
+        }
+        if (autoCapture != null && autoCapture.getLane() == lane) {
+            return;
+        }
+        stopAutoCapture();
+        autoCapture = new AutoCaptureTrigger(lane, autoCaptureConfig, window -> onAutoCapture(lane, window));
+        autoCapture.start();
+    }
 
-        Thread serialThread = new Thread(newReader::start, "WeighReader-Thread");
-        serialThread.setDaemon(true);
-        serialThread.start();
+    private void stopAutoCapture() {
+        if (autoCapture != null) {
+            autoCapture.close();
+            autoCapture = null;
+        }
+    }
 
-        logger.info("WeighReader restarted with new serial config: port={}, baud={}",
-                cfg.getPortName(), cfg.getBaudRate());
+    /**
+     * Runs on the trigger thread of {@code lane}. Declining keeps the trigger armed, so the
+     * capture is retried once a lorry number has been entered and left alone for a moment.
+     * The capture statistics are taken here, from the same deck as the window.
+     */
+    private boolean onAutoCapture(ScaleLane lane, CaptureWindow window) {
+        if (enteredLorry.isEmpty() || System.nanoTime() - lorryEditedNanos < LORRY_SETTLE_NANOS) {
+            return false;
+        }
+        if (!saveInFlight.compareAndSet(false, true)) {
+            return false;
+        }
+        CaptureStats captureStats = lane.getCaptureStats();
+        Platform.runLater(() -> commitAutoCapture(lane, window, captureStats));
+        return true;
+    }
+
+    /**
+     * Saves the capture taken on {@code lane}. If the operator has switched decks meanwhile,
+     * or the save is declined or fails, the trigger is re-armed so the vehicle is captured
+     * again instead of being lost.
+     */
+    private void commitAutoCapture(ScaleLane lane, CaptureWindow window, CaptureStats captureStats) {
+        String lorry = lorryField.getText().trim();
+        if (lorry.isEmpty() || lane != activeLane || lane.isStale()) {
+            saveInFlight.set(false);
+            rearmAutoCapture(lane);
+            return;
+        }
+        logger.info("Auto-capture on {} for lorry {}: {}", lane.getName(), lorry, window);
+        submitSave(lorry,
+                fieldOrDash(customerField),
+                fieldOrDash(productField),
+                fieldOrDash(driverField),
+                window.getWeightKg(),
+                captureStats,
+                lane.getIndex() + 1,
+                null,
+                saved -> {
+                    saveInFlight.set(false);
+                    if (!saved) {
+                        Platform.runLater(() -> rearmAutoCapture(lane));
+                    }
+                });
     }
 
-    public void updateLiveWeight(int weight, char statusChar) {
-        boolean stable = (statusChar == 'P' || statusChar == 'T');
-        model.updateLive(weight, stable ? "STABLE" : "UNSTABLE");
+    private void rearmAutoCapture(ScaleLane lane) {
+        if (autoCapture != null && autoCapture.getLane() == lane) {
+            autoCapture.rearm();
+        }
+    }
+
+    private static String fieldOrDash(TextField field) {
+        String text = field.getText().trim();
+        return text.isEmpty() ? "-" : text;
+    }
+
+    /**
+     * Renders the latest frame once per pulse so the FX thread never falls behind the
+     * indicator, however fast it sends.
+     */
+    private void startLiveWeightRenderer() {
+        liveWeightTimer = new LiveWeightRenderer();
+        liveWeightTimer.start();
+    }
+
+    /**
+     * UI subscriber of the active lane's weight bus. Each pulse it skips straight to the
+     * newest sample, so intermediate frames cost the FX thread nothing.
+     */
+    private final class LiveWeightRenderer extends AnimationTimer implements WeightBus.SampleHandler {
+
+        private ScaleLane lane;
+        private WeightBus.Subscriber subscriber;
+        private long lastSequence = -1;
+        private int weightKg;
+        private char status;
+        private long receivedNanos;
+        private boolean rendered;
+        private String lastStatus;
+        private int stableWeightKg;
+        private long stableNanos = -1;
+
+        @Override
+        public void handle(long now) {
+            ScaleLane current = activeLane;
+            if (current == null) {
+                return;
+            }
+            if (current != lane) {
+                follow(current);
+            }
+
+            boolean fresh = subscriber.pollLatest(this);
+            if (lastSequence < 0) {
+                return;
+            }
+            boolean stale = lane.isStale();
+            if (!stale && isWeightStable(status)) {
+                stableWeightKg = weightKg;
+                stableNanos = receivedNanos;
+            }
+            String statusText = stale ? "STALE" : isWeightStable(status) ? "STABLE" : "UNSTABLE";
+            if (fresh || !statusText.equals(lastStatus) || !rendered) {
+                lastStatus = statusText;
+                rendered = true;
+                model.updateLive(weightKg, statusText);
+                if (fresh) {
+                    lane.getMetrics().onRendered(receivedNanos);
+                }
+            }
+        }
+
+        @Override
+        public void onSample(long sequence, int weightKg, char status, long receivedNanos) {
+            this.lastSequence = sequence;
+            this.weightKg = weightKg;
+            this.status = status;
+            this.receivedNanos = receivedNanos;
+        }
+
+        private void follow(ScaleLane next) {
+            if (subscriber != null) {
+                subscriber.close();
+            }
+            lane = next;
+            subscriber = next.getBus().subscribe("ui");
+            lastSequence = -1;
+            rendered = false;
+            stableNanos = -1;
+            model.updateLive(0, "—");
+        }
+
+        /**
+         * Whether the newest sample of the lane on screen is a stable one, so that
+         * {@link #getStableWeightKg()} is what the deck weighs right now. Motion frames and
+         * the blank shown after a lane switch never qualify.
+         */
+        boolean hasCurrentStableWeight() {
+            return lane != null && lane == activeLane && !lane.isStale()
+                    && lastSequence >= 0 && stableNanos == receivedNanos;
+        }
+
+        int getStableWeightKg() {
+            return stableWeightKg;
+        }
+
+        @Override
+        public void stop() {
+            super.stop();
+            if (subscriber != null) {
+                subscriber.close();
+                subscriber = null;
+                lane = null;
+            }
+        }
+    }
+
+    /**
+     * Uses the software detector's verdict when enabled, otherwise the indicator's status.
+     */
+    private boolean isWeightStable(char statusChar) {
+        ScaleLane lane = activeLane;
+        StabilityDetector detector = lane != null ? lane.getStability() : null;
+        if (detector != null) {
+            return detector.isStable();
+        }
+        return statusChar == 'P' || statusChar == 'T';
     }
 
     private void resetRecord() {
@@ -557,6 +896,28 @@ public class MainController {
                     false);
             return;
         }
+        if (!saveInFlight.compareAndSet(false, true)) {
+            showToast((Stage) rootPane.getScene().getWindow(),
+                    rootPane,
+                    "A weighing is already being saved",
+                    false);
+            return;
+        }
+        boolean submitted = false;
+        try {
+            submitted = confirmAndSave(lorry, customer, product, driver);
+        } finally {
+            if (!submitted) {
+                saveInFlight.set(false);
+            }
+        }
+    }
+
+    /**
+     * Validates the weight and asks for confirmation, then submits the save. Returns whether
+     * a save was submitted; the caller holds {@link #saveInFlight} until then.
+     */
+    private boolean confirmAndSave(String lorry, String customer, String product, String driver) {
         if (product.isEmpty()) {
             product = "-";
         }
@@ -566,7 +927,24 @@ public class MainController {
         if (customer.isEmpty()) {
             customer = "-";
         }
-        int currentWeight = model.liveWeightProperty().get();
+        if (activeLane == null || activeLane.isStale()) {
+            showToast((Stage) rootPane.getScene().getWindow(),
+                    rootPane,
+                    "No data from the indicator - weight is stale",
+                    false);
+            return false;
+        }
+
+        if (liveWeightTimer == null || !liveWeightTimer.hasCurrentStableWeight()) {
+            showToast((Stage) rootPane.getScene().getWindow(),
+                    rootPane,
+                    "Weight is not stable yet",
+                    false);
+            return false;
+        }
+        int currentWeight = liveWeightTimer.getStableWeightKg();
+        CaptureStats captureStats = activeLane.getCaptureStats();
+        int laneNo = activeLane.getIndex() + 1;
 
         if (weighService.isPendingRecordAvailable(lorry) && !weighService.hasFirstWeight()) {
             Platform.runLater(() -> {
@@ -576,56 +954,60 @@ public class MainController {
                         false);
                 resetRecord();
             });
-            return;
+            return false;
         }
 
         Stage stage = (Stage) rootPane.getScene().getWindow();
+        TareRegistry.StoredTare storedTare = weighService.hasFirstWeight() ? null : weighService.findStoredTare(lorry);
+        if (storedTare != null && currentWeight > storedTare.getTareKg() + storedTare.getSpreadKg()) {
+            boolean singlePass = UiUtils.showConfirmation(
+                    stage,
+                    "Use Stored Tare?",
+                    String.format("%s has a stored tare of %d kg from %d recent weighings.%n"
+                                    + "Complete this weighing in one pass?",
+                            lorry, storedTare.getTareKg(), storedTare.getSamples()),
+                    true);
+            if (singlePass) {
+                submitSave(lorry, customer, product, driver, currentWeight, captureStats, laneNo, storedTare,
+                        saved -> saveInFlight.set(false));
+                return true;
+            }
+        }
+
         boolean confirmed = UiUtils.showConfirmation(
                 stage,
                 "Save Changes?",
                 "Are you sure you want to save these changes?",
                 false);
         if (!confirmed) {
-            return;
+            return false;
         }
 
-        String finalDriver = driver;
-        String finalProduct = product;
-        String finalCustomer = customer;
+        submitSave(lorry, customer, product, driver, currentWeight, captureStats, laneNo, null,
+                saved -> saveInFlight.set(false));
+        return true;
+    }
+
+    /**
+     * Commits the first or second weight for {@code lorry}, taken on scale number
+     * {@code laneNo} (counted from 1), and prints the matching ticket, or completes the
+     * weighing in one pass when {@code storedTare} is given. {@code afterSave} runs on the
+     * worker thread once the save has finished or failed, and is told whether a weight was
+     * saved.
+     */
+    private void submitSave(String lorry, String customer, String product, String driver,
+                            int currentWeight, CaptureStats captureStats, int laneNo,
+                            TareRegistry.StoredTare storedTare, Consumer<Boolean> afterSave) {
         Task<Void> saveTask = new Task<Void>() {
             @Override
             protected Void call() throws Exception {
-                if (weighService.isPendingRecordAvailable(lorry) && weighService.hasFirstWeight()) {
-                    weighService.saveSecondWeight(currentWeight);
-                    printSecondTicket();
-                    Platform.runLater(() -> {
-                        resetRecord();
-                        showToast((Stage) rootPane.getScene().getWindow(),
-                                rootPane,
-                                "Second Weight saved successfully!",
-                                true);
-                    });
-                } else if (weighService.isPendingRecordAvailable(lorry) && !weighService.hasFirstWeight()) {
-                    Platform.runLater(() -> {
-                        showToast((Stage) rootPane.getScene().getWindow(),
-                                rootPane,
-                                "A pending record already exists!",
-                                false);
-                        resetRecord();
-                    });
-                } else {
-                    weighService.startTransaction(lorry, finalCustomer, finalProduct, finalDriver);
-                    weighService.saveFirstWeight(currentWeight);
-                    printFirstTicket();
-                    Platform.runLater(() -> {
-                        resetRecord();
-                        showToast((Stage) rootPane.getScene().getWindow(),
-                                rootPane,
-                                "First Weight saved successfully!",
-                                true);
-                    });
+                boolean saved = false;
+                try {
+                    saved = saveWeighing(lorry, customer, product, driver, currentWeight, captureStats, laneNo,
+                            storedTare);
+                } finally {
+                    afterSave.accept(saved);
                 }
-                loadTables();
                 return null;
             }
         };
@@ -642,6 +1024,62 @@ public class MainController {
         MainApp.getExecutorService().submit(saveTask);
     }
 
+    /**
+     * Returns whether a weight was saved; {@code false} when an open pending record for the
+     * lorry made the save pointless.
+     */
+    private boolean saveWeighing(String lorry, String customer, String product, String driver,
+                              int currentWeight, CaptureStats captureStats, int laneNo,
+                              TareRegistry.StoredTare storedTare) {
+        boolean pending = storedTare == null && weighService.isPendingRecordAvailable(lorry);
+        boolean saved = true;
+        if (storedTare != null) {
+            weighService.saveStoredTareTransaction(lorry, customer, product, driver,
+                    storedTare, currentWeight, captureStats, laneNo);
+            // No first ticket was issued, so print both halves with the stored tare marker.
+            printFullTicket();
+            Platform.runLater(() -> {
+                resetRecord();
+                showToast((Stage) rootPane.getScene().getWindow(),
+                        rootPane,
+                        "Weighing completed with stored tare!",
+                        true);
+            });
+        } else if (pending && weighService.hasFirstWeight()) {
+            weighService.saveSecondWeight(currentWeight, captureStats, laneNo);
+            printSecondTicket();
+            Platform.runLater(() -> {
+                resetRecord();
+                showToast((Stage) rootPane.getScene().getWindow(),
+                        rootPane,
+                        "Second Weight saved successfully!",
+                        true);
+            });
+        } else if (pending) {
+            saved = false;
+            Platform.runLater(() -> {
+                showToast((Stage) rootPane.getScene().getWindow(),
+                        rootPane,
+                        "A pending record already exists!",
+                        false);
+                resetRecord();
+            });
+        } else {
+            weighService.startTransaction(lorry, customer, product, driver);
+            weighService.saveFirstWeight(currentWeight, captureStats, laneNo);
+            printFirstTicket();
+            Platform.runLater(() -> {
+                resetRecord();
+                showToast((Stage) rootPane.getScene().getWindow(),
+                        rootPane,
+                        "First Weight saved successfully!",
+                        true);
+            });
+        }
+        loadTables();
+        return saved;
+    }
+
     private void printFirstTicket() {
         Record record = weighService.getActiveRecord();
 
@@ -27,7 +27,10 @@ import javafx.scene.Scene;
 import javafx.stage.Modality;
 import org.apache.logging.log4j.Logger;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
 
 public class RecordsController {
     private static final Logger logger = LogUtil.getLogger(RecordsController.class);
@@ -48,16 +51,24 @@ public class RecordsController {
     private Button nextButton;
     @FXML
     private Label pageLabel;
+    @FXML
+    private DatePicker jumpDatePicker;
 
     private WeighService weighService;
     private UiScaler uiScaler;
 
     private final ObservableList<Record> completeRecords = FXCollections.observableArrayList();
 
-    private int currentPage = 1;
     private final int rowsPerPage = 20;
-    private int totalRecords = 0;
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    // Pages are fetched by seeking from the ids at their edges, so deep pages cost no more
+    // than the first one.
+    private int currentPage = 1;
     private int totalPages = 1;
+    private long firstId;
+    private long lastId;
+    private boolean hasMore;
 
     private String currentLorryFilter = null;
     private String currentTicketFilter = null;
@@ -88,14 +99,18 @@ public class RecordsController {
         printFullButton.setOnAction(e -> printFullTicket());
         prevButton.setOnAction(e -> {
             if (currentPage > 1) {
-                currentPage--;
-                loadData();
+                loadPreviousPage();
             }
         });
         nextButton.setOnAction(e -> {
-            if (currentPage < totalPages) {
-                currentPage++;
-                loadData();
+            if (hasMore) {
+                loadNextPage();
+            }
+        });
+        jumpDatePicker.setOnAction(e -> {
+            LocalDate date = jumpDatePicker.getValue();
+            if (date != null) {
+                jumpToDate(date.format(dateFormatter));
             }
         });
     }
@@ -146,7 +161,7 @@ public class RecordsController {
         this.currentTicketFilter = ticketNo;
         this.currentFromDate = fromDate;
         this.currentToDate = toDate;
-        this.currentPage = 1;
+        jumpDatePicker.setValue(null);
         loadData();
     }
 
@@ -174,7 +189,7 @@ public class RecordsController {
             @Override
             protected Void call() throws Exception {
                 PrintService printService = new PrintService();
-                CompanyDao companyDao = new CompanyDao(DatabaseConfig.getConnection());
+                CompanyDao companyDao = new CompanyDao(DatabaseConfig.getDataSource());
                 CompanyInfo companyInfo = companyDao.getCompanyInfo();
                 printService.printReceiptSilent(record, mode, companyInfo);
                 return null;
@@ -219,6 +234,8 @@ public class RecordsController {
         TableColumn<Record, String> productCol = (TableColumn<Record, String>) completeRecordsTable.getColumns()
                 .get(10);
         TableColumn<Record, String> driverCol = (TableColumn<Record, String>) completeRecordsTable.getColumns().get(11);
+        TableColumn<Record, String> storedTareCol = (TableColumn<Record, String>) completeRecordsTable.getColumns()
+                .get(12);
 
         dateInCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getDateIn()));
         dateOutCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getDateOut()));
@@ -236,12 +253,14 @@ public class RecordsController {
         customerCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getCustomerName()));
         productCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getProductName()));
         driverCol.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getDriverName()));
+        storedTareCol.setCellValueFactory(
+                cellData -> new SimpleStringProperty(cellData.getValue().isStoredTare() ? "Yes" : ""));
 
         setupTableColumnResize();
     }
 
     private void setupTableColumnResize() {
-        double[] completePrefWidths = {80, 80, 70, 70, 90, 100, 90, 90, 90, 120, 120, 120};
+        double[] completePrefWidths = {80, 80, 70, 70, 90, 100, 90, 90, 90, 120, 120, 120, 90};
         double completeTotalMin = 0;
         for (double w : completePrefWidths) completeTotalMin += w;
         final double completeMin = completeTotalMin;
@@ -261,29 +280,94 @@ public class RecordsController {
     }
 
     private void loadData() {
-        Task<Void> task = new Task<Void>() {
-            @Override
-            protected Void call() throws Exception {
-                totalRecords = weighService.getFilteredCompletedRecordsCount(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate);
-                totalPages = (int) Math.ceil((double) totalRecords / rowsPerPage);
-                if (totalPages == 0) totalPages = 1;
-
-                if (currentPage > totalPages) {
-                    currentPage = totalPages;
-                }
+        submitPage(() -> {
+            int totalRecords = weighService.getFilteredCompletedRecordsCount(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate);
+            ArrayList<Record> records = weighService.getFilteredCompletedRecordsBefore(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate, Long.MAX_VALUE, rowsPerPage);
+            return new Page(records, 1, pagesFor(totalRecords));
+        });
+    }
 
-                int offset = (currentPage - 1) * rowsPerPage;
-                ArrayList<Record> records = weighService.getFilteredCompletedRecords(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate, offset, rowsPerPage);
+    private void loadNextPage() {
+        long cursor = lastId;
+        int page = currentPage + 1;
+        int pages = totalPages;
+        submitPage(() -> new Page(
+                weighService.getFilteredCompletedRecordsBefore(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate, cursor, rowsPerPage),
+                page, pages));
+    }
 
-                Platform.runLater(() -> {
-                    completeRecords.setAll(records);
-                    updatePaginationControls();
-                });
+    private void loadPreviousPage() {
+        long cursor = firstId;
+        int page = currentPage - 1;
+        int pages = totalPages;
+        submitPage(() -> {
+            ArrayList<Record> records = weighService.getFilteredCompletedRecordsAfter(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate, cursor, rowsPerPage);
+            boolean reachedNewest = records.size() < rowsPerPage;
+            if (!reachedNewest && page <= 1) {
+                // Pages counted from a date jump need not line up with page 1: if newer rows
+                // remain, this is not really the first page.
+                long newestId = records.get(0).getId();
+                reachedNewest = weighService.getFilteredCompletedRecordsCountAfter(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate, newestId) > 0;
+            }
+            if (reachedNewest) {
+                // Reached the newest records, e.g. after jumping to a date mid-page: realign on page 1.
+                int totalRecords = weighService.getFilteredCompletedRecordsCount(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate);
+                records = weighService.getFilteredCompletedRecordsBefore(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate, Long.MAX_VALUE, rowsPerPage);
+                return new Page(records, 1, pagesFor(totalRecords));
+            }
+            return new Page(records, page, pages);
+        });
+    }
 
+    /**
+     * Shows the records weighed in on or before {@code date}, newest first.
+     */
+    private void jumpToDate(String date) {
+        submitPage(() -> {
+            long latestId = weighService.findLatestFilteredCompletedId(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate, date);
+            if (latestId == 0) {
                 return null;
             }
+            int newer = weighService.getFilteredCompletedRecordsCountAfter(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate, latestId);
+            int totalRecords = weighService.getFilteredCompletedRecordsCount(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate);
+            int page = newer / rowsPerPage + 1;
+            ArrayList<Record> records = weighService.getFilteredCompletedRecordsBefore(currentLorryFilter, currentTicketFilter, currentFromDate, currentToDate, latestId + 1, rowsPerPage);
+            return new Page(records, page, page - 1 + pagesFor(totalRecords - newer));
+        });
+    }
+
+    private int pagesFor(int records) {
+        return Math.max(1, (int) Math.ceil((double) records / rowsPerPage));
+    }
+
+    private void submitPage(Callable<Page> loader) {
+        Task<Page> task = new Task<Page>() {
+            @Override
+            protected Page call() throws Exception {
+                return loader.call();
+            }
         };
 
+        task.setOnSucceeded(e -> {
+            Page page = task.getValue();
+            if (page == null) {
+                UiUtils.showToast((Stage) rootPane.getScene().getWindow(),
+                        rootPane,
+                        "No records on or before the selected date",
+                        false);
+                return;
+            }
+            completeRecords.setAll(page.records);
+            currentPage = page.number;
+            totalPages = Math.max(page.number, page.totalPages);
+            hasMore = page.records.size() == rowsPerPage && currentPage < totalPages;
+            if (!page.records.isEmpty()) {
+                firstId = page.records.get(0).getId();
+                lastId = page.records.get(page.records.size() - 1).getId();
+            }
+            updatePaginationControls();
+        });
+
         task.setOnFailed(e -> {
             Throwable ex = task.getException();
             logger.error("Failed to load paginated records: {}", ex.getMessage(), ex);
@@ -299,6 +383,18 @@ public class RecordsController {
     private void updatePaginationControls() {
         pageLabel.setText(String.format("Page %d of %d", currentPage, totalPages));
         prevButton.setDisable(currentPage <= 1);
-        nextButton.setDisable(currentPage >= totalPages);
+        nextButton.setDisable(!hasMore);
+    }
+
+    private static final class Page {
+        private final ArrayList<Record> records;
+        private final int number;
+        private final int totalPages;
+
+        private Page(ArrayList<Record> records, int number, int totalPages) {
+            this.records = records;
+            this.number = number;
+            this.totalPages = totalPages;
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.hcs.weighbridge.ui;
 
 import com.fazecast.jSerialComm.SerialPort;
+import com.hcs.weighbridge.constants.IngestMode;
 import com.hcs.weighbridge.dao.ConfigDao;
 import com.hcs.weighbridge.dao.UserDao;
 import com.hcs.weighbridge.dao.CompanyDao;
@@ -8,6 +9,13 @@ import com.hcs.weighbridge.model.CompanyInfo;
 import com.hcs.weighbridge.model.Role;
 import com.hcs.weighbridge.model.SerialConfig;
 import com.hcs.weighbridge.model.User;
+import com.hcs.weighbridge.serial.PortAutoDetector;
+import com.hcs.weighbridge.serial.PortInfo;
+import com.hcs.weighbridge.serial.PortProbeResult;
+import com.hcs.weighbridge.serial.PortWatcher;
+import com.hcs.weighbridge.serial.ScaleProtocols;
+import com.hcs.weighbridge.serial.ScaleRegistry;
+import com.hcs.weighbridge.serial.WeighDevices;
 import com.hcs.weighbridge.util.LogUtil;
 import com.hcs.weighbridge.util.UiUtils;
 import javafx.fxml.FXML;
@@ -24,6 +32,8 @@ import com.hcs.weighbridge.util.SystemUtils;
 import org.apache.logging.log4j.Logger;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 
 import static com.hcs.weighbridge.util.UiUtils.showAlert;
@@ -33,6 +43,10 @@ public class SettingsController implements Initializable {
 
     private static final Logger logger = LogUtil.getLogger(SettingsController.class);
     @FXML
+    private ComboBox<Integer> scaleCountCombo;
+    @FXML
+    private ComboBox<Integer> laneCombo;
+    @FXML
     private ComboBox<String> portCombo;
     @FXML
     private ComboBox<Integer> baudCombo;
@@ -42,6 +56,14 @@ public class SettingsController implements Initializable {
     private ComboBox<Integer> stopBitsCombo;
     @FXML
     private ComboBox<String> parityCombo;
+    @FXML
+    private ComboBox<IngestMode> ingestModeCombo;
+    @FXML
+    private ComboBox<String> protocolCombo;
+    @FXML
+    private Button autoDetectButton;
+    @FXML
+    private Label autoDetectLabel;
 
     @FXML
     private Slider scaleSlider;
@@ -104,13 +126,21 @@ public class SettingsController implements Initializable {
     }
 
     private void setupComboBoxes() {
-        for (SerialPort p : SerialPort.getCommPorts()) {
-            portCombo.getItems().add(p.getSystemPortName());
+        for (PortInfo p : PortWatcher.getPorts()) {
+            portCombo.getItems().add(p.getSystemName());
         }
-        baudCombo.getItems().addAll(1200, 2400, 4800, 9600);
+        // Editable so a REPLAY:<file>[@speed] source can be typed in.
+        portCombo.getItems().add(WeighDevices.SIMULATOR_PREFIX);
+        portCombo.setEditable(true);
+        baudCombo.getItems().addAll(1200, 2400, 4800, 9600, 19200);
         dataBitsCombo.getItems().addAll(7, 8);
         stopBitsCombo.getItems().addAll(1, 2);
         parityCombo.getItems().addAll("NONE", "EVEN", "ODD");
+        for (int i = 1; i <= ScaleRegistry.MAX_LANES; i++) {
+            scaleCountCombo.getItems().add(i);
+        }
+        ingestModeCombo.getItems().setAll(IngestMode.values());
+        protocolCombo.getItems().setAll(ScaleProtocols.names());
 
         roleCombo.getItems().setAll(Role.values());
         roleCombo.setValue(Role.USER);
@@ -182,7 +212,11 @@ public class SettingsController implements Initializable {
             @Override
             protected Void call() throws Exception {
                 double currentScale = configDao.getUiScaleFactor();
-                SerialConfig cfg = configDao.loadSerialConfig();
+                int scaleCount = configDao.getScaleCount();
+                int lane = mainController != null
+                        ? Math.min(mainController.getActiveLaneIndex(), scaleCount - 1)
+                        : 0;
+                SerialConfig cfg = configDao.loadSerialConfig(lane);
                 CompanyInfo companyInfo = null;
                 if (isAdmin() && companyDao != null) {
                     companyInfo = companyDao.getCompanyInfo();
@@ -194,25 +228,20 @@ public class SettingsController implements Initializable {
                     scaleSlider.setValue(finalScale);
                     updateScaleLabel(finalScale);
 
-                    if (cfg.getPortName() != null && !cfg.getPortName().isEmpty()) {
-                        portCombo.setValue(cfg.getPortName());
-                    }
-
-                    if (cfg.getBaudRate() > 0) {
-                        baudCombo.setValue(cfg.getBaudRate());
-                    }
-
-                    if (cfg.getDataBits() > 0) {
-                        dataBitsCombo.setValue(cfg.getDataBits());
-                    }
-
-                    if (cfg.getStopBits() > 0) {
-                        stopBitsCombo.setValue(cfg.getStopBits());
-                    }
-
-                    String parityValue = cfg.getParity() == SerialPort.EVEN_PARITY ? "EVEN"
-                            : cfg.getParity() == SerialPort.ODD_PARITY ? "ODD" : "NONE";
-                    parityCombo.setValue(parityValue);
+                    scaleCountCombo.setValue(scaleCount);
+                    setLaneItems(scaleCount);
+                    laneCombo.setValue(lane + 1);
+                    showSerialConfig(cfg);
+                    laneCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
+                        if (newVal != null && !newVal.equals(oldVal)) {
+                            loadLaneConfig(newVal - 1);
+                        }
+                    });
+                    scaleCountCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
+                        if (newVal != null) {
+                            setLaneItems(newVal);
+                        }
+                    });
 
                     if (startupCheckBox != null) {
                         startupCheckBox.setSelected(SystemUtils.isRunOnStartupEnabled());
@@ -232,6 +261,110 @@ public class SettingsController implements Initializable {
         MainApp.getExecutorService().submit(loadTask);
     }
 
+    private void setLaneItems(int scaleCount) {
+        Integer selected = laneCombo.getValue();
+        laneCombo.getItems().clear();
+        for (int i = 1; i <= scaleCount; i++) {
+            laneCombo.getItems().add(i);
+        }
+        laneCombo.setValue(selected != null && selected <= scaleCount ? selected : 1);
+    }
+
+    private void loadLaneConfig(int lane) {
+        Task<SerialConfig> loadTask = new Task<SerialConfig>() {
+            @Override
+            protected SerialConfig call() throws Exception {
+                return configDao.loadSerialConfig(lane);
+            }
+        };
+
+        loadTask.setOnSucceeded(e -> showSerialConfig(loadTask.getValue()));
+        loadTask.setOnFailed(e -> logger.error("Failed to load settings of scale {}: {}",
+                lane + 1, loadTask.getException().getMessage(), loadTask.getException()));
+
+        MainApp.getExecutorService().submit(loadTask);
+    }
+
+    private void showSerialConfig(SerialConfig cfg) {
+        portCombo.getEditor().setText("");
+        portCombo.setValue(null);
+        if (cfg.getPortName() != null && !cfg.getPortName().isEmpty()) {
+            portCombo.setValue(cfg.getPortName());
+        }
+
+        if (cfg.getBaudRate() > 0) {
+            baudCombo.setValue(cfg.getBaudRate());
+        }
+
+        if (cfg.getDataBits() > 0) {
+            dataBitsCombo.setValue(cfg.getDataBits());
+        }
+
+        if (cfg.getStopBits() > 0) {
+            stopBitsCombo.setValue(cfg.getStopBits());
+        }
+
+        String parityValue = cfg.getParity() == SerialPort.EVEN_PARITY ? "EVEN"
+                : cfg.getParity() == SerialPort.ODD_PARITY ? "ODD" : "NONE";
+        parityCombo.setValue(parityValue);
+        ingestModeCombo.setValue(cfg.getIngestMode());
+        protocolCombo.setValue(ScaleProtocols.forName(cfg.getProtocolName()).getName());
+    }
+
+    /**
+     * Probes every serial port for an indicator and fills the form with the best match. The
+     * edited scale's reader is paused meanwhile so its port can be probed too; nothing is
+     * saved until the user presses Save.
+     */
+    @FXML
+    private void autoDetect() {
+        int lane = laneCombo.getValue() != null ? laneCombo.getValue() - 1 : 0;
+        autoDetectButton.setDisable(true);
+        autoDetectLabel.setText("Listening on all serial ports...");
+
+        Task<List<PortProbeResult>> detectTask = new Task<List<PortProbeResult>>() {
+            @Override
+            protected List<PortProbeResult> call() throws Exception {
+                List<String> portNames = new ArrayList<>();
+                for (PortInfo p : PortWatcher.getPorts()) {
+                    portNames.add(p.getSystemName());
+                }
+                boolean paused = mainController != null && mainController.pauseWeighReader(lane);
+                try {
+                    return new PortAutoDetector().detect(portNames);
+                } finally {
+                    if (paused) {
+                        mainController.restartWeighReader(lane, configDao.loadSerialConfig(lane));
+                    }
+                }
+            }
+        };
+
+        detectTask.setOnSucceeded(e -> {
+            autoDetectButton.setDisable(false);
+            List<PortProbeResult> results = detectTask.getValue();
+            if (results.isEmpty()) {
+                autoDetectLabel.setText("No indicator found. Check the cable and that the indicator is sending.");
+                return;
+            }
+            PortProbeResult best = results.get(0);
+            SerialConfig cfg = new SerialConfig();
+            cfg.setIngestMode(ingestModeCombo.getValue() != null ? ingestModeCombo.getValue() : IngestMode.BLOCKING);
+            best.applyTo(cfg);
+            showSerialConfig(cfg);
+            autoDetectLabel.setText("Found " + best + ". Press Save to apply.");
+        });
+
+        detectTask.setOnFailed(e -> {
+            autoDetectButton.setDisable(false);
+            Throwable ex = detectTask.getException();
+            logger.error("Serial auto-detect failed: {}", ex.getMessage(), ex);
+            autoDetectLabel.setText("Auto-detect failed: " + ex.getMessage());
+        });
+
+        MainApp.getExecutorService().submit(detectTask);
+    }
+
     @FXML
     private void addUser() {
         if (!isAdmin()) {
@@ -429,8 +562,11 @@ public class SettingsController implements Initializable {
         try {
             SerialConfig cfg = new SerialConfig();
             CompanyInfo companyInfo = new CompanyInfo();
+            int scaleCount = scaleCountCombo.getValue() != null ? scaleCountCombo.getValue() : 1;
+            int lane = laneCombo.getValue() != null ? laneCombo.getValue() - 1 : 0;
             if (isAdmin()) {
-                cfg.setPortName(portCombo.getValue());
+                // Typed text is only committed to the value on Enter, so read the editor.
+                cfg.setPortName(portCombo.getEditor().getText().trim());
 
                 if (baudCombo.getValue() != null) {
                     cfg.setBaudRate(baudCombo.getValue());
@@ -453,6 +589,14 @@ public class SettingsController implements Initializable {
                     cfg.setParity(SerialPort.NO_PARITY);
                 }
 
+                if (ingestModeCombo.getValue() != null) {
+                    cfg.setIngestMode(ingestModeCombo.getValue());
+                }
+
+                if (protocolCombo.getValue() != null) {
+                    cfg.setProtocolName(protocolCombo.getValue());
+                }
+
                 companyInfo.setCompanyName(companyNameField.getText().trim().toUpperCase());
                 companyInfo.setCompanyAddress(companyAddressField.getText().trim());
                 companyInfo.setContactNumber1(contactNumber1Field.getText().trim());
@@ -465,7 +609,8 @@ public class SettingsController implements Initializable {
                 @Override
                 protected Void call() throws Exception {
                     if (isAdmin()) {
-                        configDao.saveSerialConfig(cfg);
+                        configDao.setScaleCount(scaleCount);
+                        configDao.saveSerialConfig(lane, cfg);
                         if (companyDao != null) {
                             companyDao.saveCompanyInfo(companyInfo);
                         }
@@ -482,7 +627,8 @@ public class SettingsController implements Initializable {
                 if (mainController != null) {
                     mainController.reloadWithScale(scaleFactor);
                     if (isAdmin()) {
-                        mainController.restartWeighReader(cfg);
+                        mainController.applyScaleCount(scaleCount);
+                        mainController.restartWeighReader(lane, cfg);
                     }
                     showToast((Stage) scaleSlider.getScene().getWindow(),
                             scaleSlider,
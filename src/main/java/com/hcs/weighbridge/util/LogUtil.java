@@ -1,5 +1,6 @@
 package com.hcs.weighbridge.util;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import java.io.File;
@@ -27,6 +28,14 @@ public final class LogUtil {
         return LogManager.getLogger(clazz);
     }
 
+    /**
+     * Returns a logger for per-frame paths that writes one summary line (count, min, max,
+     * average) every {@code intervalMs} at {@code level}.
+     */
+    public static SampledLogger sampled(Logger logger, Level level, String label, long intervalMs) {
+        return new SampledLogger(logger, level, label, intervalMs);
+    }
+
     public static void logError(Logger logger, String message, Throwable throwable, Object... params) {
         logger.error(message, params, throwable);
 
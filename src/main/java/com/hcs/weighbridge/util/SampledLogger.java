@@ -0,0 +1,93 @@
+package com.hcs.weighbridge.util;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * Aggregates a per-event value and logs one summary line per interval instead of one line per
+ * event, for paths that run on every frame.
+ * <p>
+ * Recording only updates primitive counters; nothing is formatted or allocated until a
+ * summary is written, and nothing at all when the level is disabled. Instances are not
+ * thread-safe and belong to the thread that records into them.
+ */
+public final class SampledLogger {
+
+    private static final String SUMMARY = "{}: {} in {} ms, min {}, max {}, avg {}";
+    private static final String SUMMARY_WITH_DETAIL = "{}: {} in {} ms, min {}, max {}, avg {}, last {}";
+
+    private final Logger logger;
+    private final Level level;
+    private final String label;
+    private final long intervalNanos;
+
+    private long windowStart;
+    private long count;
+    private long min;
+    private long max;
+    private long sum;
+    private Object lastDetail;
+
+    SampledLogger(Logger logger, Level level, String label, long intervalMs) {
+        this.logger = logger;
+        this.level = level;
+        this.label = label;
+        this.intervalNanos = intervalMs * 1_000_000L;
+    }
+
+    public void record(long value) {
+        record(value, null);
+    }
+
+    /**
+     * Records {@code value}; {@code detail}, if not {@code null}, replaces the example shown
+     * with the next summary.
+     */
+    public void record(long value, Object detail) {
+        if (!logger.isEnabled(level)) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (count == 0) {
+            windowStart = now;
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        count++;
+        sum += value;
+        if (detail != null) {
+            lastDetail = detail;
+        }
+        if (now - windowStart >= intervalNanos) {
+            write(now);
+        }
+    }
+
+    /**
+     * Writes whatever has been recorded since the last summary, e.g. when the stream stops.
+     */
+    public void flush() {
+        if (count > 0) {
+            write(System.nanoTime());
+        }
+    }
+
+    private void write(long now) {
+        long elapsedMs = (now - windowStart) / 1_000_000L;
+        if (lastDetail != null) {
+            logger.log(level, SUMMARY_WITH_DETAIL, label, box(count), box(elapsedMs),
+                    box(min), box(max), box(sum / count), lastDetail);
+        } else {
+            logger.log(level, SUMMARY, label, box(count), box(elapsedMs),
+                    box(min), box(max), box(sum / count));
+        }
+        count = 0;
+        sum = 0;
+        lastDetail = null;
+    }
+}
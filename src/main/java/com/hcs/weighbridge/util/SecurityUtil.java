@@ -4,6 +4,7 @@ import io.github.cdimascio.dotenv.Dotenv;
 import org.mindrot.jbcrypt.BCrypt;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.File;
@@ -12,6 +13,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.Locale;
 
 import org.apache.logging.log4j.Logger;
 
@@ -29,6 +31,16 @@ public class SecurityUtil {
 
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 128;
+
+    /**
+     * Length of the substrings indexed by {@link #ngramTokens(String)}.
+     */
+    public static final int NGRAM_LENGTH = 3;
+    private static final int NGRAM_TOKEN_BYTES = 8;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] BLIND_INDEX_LABEL = "weighbridge-blind-index".getBytes(StandardCharsets.UTF_8);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static byte[] BLIND_INDEX_KEY;
     private static boolean INITIALIZED = false;
 
     static {
@@ -81,6 +93,7 @@ public class SecurityUtil {
 
         KEY_BYTES = key.getBytes(StandardCharsets.UTF_8);
         validateKeyLength(KEY_BYTES.length);
+        BLIND_INDEX_KEY = deriveBlindIndexKey(KEY_BYTES);
         INITIALIZED = true;
 
         logger.info("Security configuration loaded successfully.");
@@ -138,6 +151,72 @@ public class SecurityUtil {
         return Base64.getEncoder().encodeToString(byteBuffer.array());
     }
 
+    /**
+     * Returns a deterministic keyed hash of {@code value} for equality lookups on encrypted
+     * columns. The value is trimmed and upper-cased first, so lookups are case-insensitive.
+     * The key is derived from the encryption key, so the index changes if that key is rotated.
+     */
+    public static String blindIndex(String value) throws Exception {
+        if (value == null) {
+            return null;
+        }
+        if (!INITIALIZED) {
+            initialize();
+        }
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(BLIND_INDEX_KEY, HMAC_ALGORITHM));
+        byte[] digest = mac.doFinal(value.trim().toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+        return toHex(digest, digest.length);
+    }
+
+    /**
+     * Returns the keyed token of every {@link #NGRAM_LENGTH}-character substring of
+     * {@code value}, indexed by its position, for substring search on encrypted columns. The
+     * value is upper-cased first; values shorter than one n-gram have no tokens.
+     */
+    public static String[] ngramTokens(String value) throws Exception {
+        if (value == null || value.length() < NGRAM_LENGTH) {
+            return new String[0];
+        }
+        if (!INITIALIZED) {
+            initialize();
+        }
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(BLIND_INDEX_KEY, HMAC_ALGORITHM));
+
+        String normalized = value.toUpperCase(Locale.ROOT);
+        String[] tokens = new String[normalized.length() - NGRAM_LENGTH + 1];
+        for (int i = 0; i < tokens.length; i++) {
+            // The prefix keeps n-gram tokens distinct from whole-value blind indexes.
+            mac.update((byte) 'n');
+            byte[] digest = mac.doFinal(normalized.substring(i, i + NGRAM_LENGTH).getBytes(StandardCharsets.UTF_8));
+            tokens[i] = toHex(digest, NGRAM_TOKEN_BYTES);
+        }
+        return tokens;
+    }
+
+    private static String toHex(byte[] bytes, int length) {
+        char[] hex = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            hex[2 * i] = HEX[(bytes[i] >> 4) & 0x0F];
+            hex[2 * i + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Derives a separate HMAC key so the blind index never uses the AES key directly.
+     */
+    private static byte[] deriveBlindIndexKey(byte[] keyBytes) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(keyBytes, HMAC_ALGORITHM));
+            return mac.doFinal(BLIND_INDEX_LABEL);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to derive blind index key", e);
+        }
+    }
+
     public static String decrypt(String encrypted) throws Exception {
         if (encrypted == null || encrypted.isEmpty()) {
             return encrypted;
@@ -0,0 +1,144 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.model.CaptureStats;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CaptureStatsTrackerTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long START = 5_000 * MS;
+
+    @Test
+    public void snapshotIsNullBeforeFirstSample() {
+        assertNull(new CaptureStatsTracker(1000, 20).snapshot());
+    }
+
+    @Test
+    public void windowEvictsOldSamples() {
+        CaptureStatsTracker tracker = new CaptureStatsTracker(1000, 20);
+        tracker.onSample(9_000, START);
+        for (int i = 1; i <= 10; i++) {
+            tracker.onSample(10_000, START + i * 100 * MS);
+        }
+        assertEquals(9_000, tracker.snapshot().getMinKg());
+        assertEquals(11, tracker.snapshot().getSampleCount());
+
+        tracker.onSample(10_000, START + 1100 * MS);
+
+        CaptureStats stats = tracker.snapshot();
+        assertEquals(11, stats.getSampleCount());
+        assertEquals(10_000, stats.getMinKg());
+        assertEquals(10_000, stats.getMaxKg());
+        assertEquals(0, stats.getStdDevKg(), 1e-9);
+    }
+
+    @Test
+    public void settleTimeRunsFromLoadToFirstFlatWindow() {
+        CaptureStatsTracker tracker = new CaptureStatsTracker(1000, 20);
+        tracker.onSample(0, START);
+        tracker.onSample(5_000, START + 100 * MS);
+        for (int i = 2; i < 12; i++) {
+            tracker.onSample(10_000, START + i * 100 * MS);
+            assertEquals(-1, tracker.snapshot().getSettleMs());
+        }
+
+        // The window now starts at the first 10000 sample.
+        tracker.onSample(10_000, START + 1200 * MS);
+        assertEquals(1100, tracker.snapshot().getSettleMs());
+
+        tracker.onSample(10_000, START + 1300 * MS);
+        assertEquals(1100, tracker.snapshot().getSettleMs());
+
+        tracker.onSample(0, START + 1400 * MS);
+        assertEquals(-1, tracker.snapshot().getSettleMs());
+    }
+
+    @Test
+    public void movementRestartsSettlingFromOriginalArrival() {
+        CaptureStatsTracker tracker = new CaptureStatsTracker(500, 20);
+        for (int i = 0; i <= 5; i++) {
+            tracker.onSample(10_000, START + i * 100 * MS);
+        }
+        assertEquals(500, tracker.snapshot().getSettleMs());
+
+        tracker.onSample(10_100, START + 600 * MS);
+        assertEquals(-1, tracker.snapshot().getSettleMs());
+        for (int i = 7; i <= 11; i++) {
+            tracker.onSample(10_100, START + i * 100 * MS);
+        }
+
+        assertEquals(1100, tracker.snapshot().getSettleMs());
+    }
+
+    @Test
+    public void longWindowAtHighFrameRateKeepsEverySample() {
+        CaptureStatsTracker tracker = new CaptureStatsTracker(6000, 20);
+
+        for (int i = 0; i <= 600; i++) {
+            tracker.onSample(10_000 + i, START + i * 10 * MS);
+        }
+
+        CaptureStats stats = tracker.snapshot();
+        assertEquals(601, stats.getSampleCount());
+        assertEquals(10_000, stats.getMinKg());
+    }
+
+    /**
+     * Compares count, min, max and standard deviation with a brute-force recomputation over
+     * a random stream that also bursts past the ring capacity.
+     */
+    @Test
+    public void statisticsMatchBruteForce() {
+        long windowMs = 1500;
+        CaptureStatsTracker tracker = new CaptureStatsTracker(windowMs, 20);
+        Random random = new Random(7);
+        List<long[]> samples = new ArrayList<>();
+        long now = START;
+        int weight = 15_000;
+
+        for (int i = 0; i < 20_000; i++) {
+            now += i % 4_000 < 800 ? MS : (1 + random.nextInt(30)) * MS;
+            weight += random.nextInt(301) - 150;
+            tracker.onSample(weight, now);
+            samples.add(new long[]{weight, now});
+
+            int tail = StabilityDetectorTest.windowTail(samples, now - windowMs * MS, tracker.getCapacity());
+            CaptureStats stats = tracker.snapshot();
+            assertEquals("count at sample " + i, samples.size() - tail, stats.getSampleCount());
+            assertEquals("range at sample " + i, StabilityDetectorTest.bruteRange(samples, tail),
+                    stats.getMaxKg() - stats.getMinKg());
+            assertEquals("min at sample " + i, bruteMin(samples, tail), stats.getMinKg());
+            assertEquals("std dev at sample " + i, bruteStdDev(samples, tail), stats.getStdDevKg(), 1e-3);
+        }
+    }
+
+    private static int bruteMin(List<long[]> samples, int tail) {
+        long min = Long.MAX_VALUE;
+        for (int i = tail; i < samples.size(); i++) {
+            min = Math.min(min, samples.get(i)[0]);
+        }
+        return (int) min;
+    }
+
+    private static double bruteStdDev(List<long[]> samples, int tail) {
+        int n = samples.size() - tail;
+        double mean = 0;
+        for (int i = tail; i < samples.size(); i++) {
+            mean += samples.get(i)[0];
+        }
+        mean /= n;
+        double variance = 0;
+        for (int i = tail; i < samples.size(); i++) {
+            double d = samples.get(i)[0] - mean;
+            variance += d * d;
+        }
+        return Math.sqrt(variance / n);
+    }
+}
@@ -0,0 +1,65 @@
+package com.hcs.weighbridge.serial;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal throughput harness for the frame decoders. Not a unit test; run the per-decoder
+ * {@code main} methods from the IDE or with {@code java -cp target/test-classes:target/classes}.
+ */
+final class DecoderBenchmark {
+
+    private static final int FRAMES_PER_BUFFER = 4096;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 2000;
+
+    private DecoderBenchmark() {
+    }
+
+    /**
+     * Feeds a buffer of repeated {@code frame} through {@code decoder} and prints frames and
+     * megabytes per second.
+     */
+    static void run(String name, FrameDecoder decoder, String frame) {
+        byte[] buffer = new byte[frame.length() * FRAMES_PER_BUFFER];
+        byte[] bytes = frame.getBytes(StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < FRAMES_PER_BUFFER; i++) {
+            System.arraycopy(bytes, 0, buffer, i * bytes.length, bytes.length);
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            decoder.accept(buffer, 0, buffer.length);
+        }
+        long before = decoder.getValidFrames();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            decoder.accept(buffer, 0, buffer.length);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long frames = decoder.getValidFrames() - before;
+        if (frames != (long) FRAMES_PER_BUFFER * MEASURED_ROUNDS || decoder.getInvalidFrames() != 0) {
+            throw new IllegalStateException(name + ": frames were not decoded as expected");
+        }
+        double seconds = elapsed / 1e9;
+        System.out.printf("%-10s %,14.0f frames/s %10.1f MB/s %8.1f ns/frame%n",
+                name, frames / seconds, (double) buffer.length * MEASURED_ROUNDS / seconds / 1e6,
+                (double) elapsed / frames);
+    }
+
+    /**
+     * Sink that only counts, so the benchmark measures the decoder and not the listener.
+     */
+    static final class CountingListener implements FrameListener {
+
+        long weightSum;
+
+        @Override
+        public void onFrame(char status, int weightKg) {
+            weightSum += weightKg;
+        }
+
+        @Override
+        public void onInvalidFrame(FrameDecoder decoder) {
+        }
+    }
+}
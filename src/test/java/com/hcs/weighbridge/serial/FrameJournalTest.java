@@ -0,0 +1,122 @@
+package com.hcs.weighbridge.serial;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FrameJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void append(FrameJournal journal, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        journal.append(bytes, 0, bytes.length, System.nanoTime());
+    }
+
+    private static List<String> texts(List<JournalEntry> entries) {
+        List<String> texts = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            texts.add(new String(entry.getData(), StandardCharsets.ISO_8859_1));
+        }
+        return texts;
+    }
+
+    @Test
+    public void readsBackAppendedChunksAfterReopen() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("frames.journal");
+        try (FrameJournal journal = FrameJournal.open(path, 1)) {
+            append(journal, "P+100\r");
+            append(journal, "P+105\r");
+        }
+        try (FrameJournal journal = FrameJournal.open(path, 1)) {
+            List<String> texts = texts(journal.read(0, Long.MAX_VALUE));
+            assertEquals(2, texts.size());
+            assertEquals("P+100\r", texts.get(0));
+            assertEquals("P+105\r", texts.get(1));
+        }
+    }
+
+    @Test
+    public void keepsOnlyNewestChunksOnceFull() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("frames.journal");
+        char[] fill = new char[4000];
+        try (FrameJournal journal = FrameJournal.open(path, 1)) {
+            for (int i = 0; i < 1000; i++) {
+                Arrays.fill(fill, (char) ('A' + i % 26));
+                append(journal, i + ":" + new String(fill));
+            }
+            List<String> texts = texts(journal.read(0, Long.MAX_VALUE));
+            assertTrue(texts.size() < 1000);
+            assertTrue(texts.get(texts.size() - 1).startsWith("999:"));
+            for (int i = 1; i < texts.size(); i++) {
+                int previous = Integer.parseInt(texts.get(i - 1).split(":")[0]);
+                assertEquals(previous + 1, Integer.parseInt(texts.get(i).split(":")[0]));
+            }
+        }
+    }
+
+    @Test
+    public void reopensWithAnotherSizeAfterClose() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("frames.journal");
+        FrameJournal journal = FrameJournal.open(path, 2);
+        append(journal, "P+100\r");
+        journal.close();
+
+        try (FrameJournal smaller = FrameJournal.open(path, 1)) {
+            assertEquals(1, smaller.getSizeMb());
+            assertTrue(smaller.read(0, Long.MAX_VALUE).isEmpty());
+        }
+        journal.close();
+        assertTrue(journal.read(0, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void readerNeverSeesTornChunksWhileWriterLaps() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("frames.journal");
+        try (FrameJournal journal = FrameJournal.open(path, 1)) {
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<String> failure = new AtomicReference<>();
+
+            Thread reader = new Thread(() -> {
+                while (!done.get() && failure.get() == null) {
+                    for (JournalEntry entry : journal.read(0, Long.MAX_VALUE)) {
+                        byte[] data = entry.getData();
+                        for (byte b : data) {
+                            if (b != data[0] || data.length != 100 + data[0]) {
+                                failure.set("torn chunk of " + data.length + " bytes");
+                                break;
+                            }
+                        }
+                    }
+                }
+            });
+            reader.start();
+
+            byte[] chunk = new byte[200];
+            for (int i = 0; i < 200_000; i++) {
+                byte value = (byte) (i % 100);
+                Arrays.fill(chunk, value);
+                journal.append(chunk, 0, 100 + value, System.nanoTime());
+            }
+            done.set(true);
+            reader.join();
+
+            assertNull(failure.get());
+            assertFalse(journal.read(0, Long.MAX_VALUE).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.hcs.weighbridge.serial;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects decoded frames as {@code "<status><weight>"} strings, e.g. {@code "P12340"}.
+ */
+class RecordingFrameListener implements FrameListener {
+
+    final List<String> frames = new ArrayList<>();
+    int invalidFrames;
+    String lastInvalid;
+
+    @Override
+    public void onFrame(char status, int weightKg) {
+        frames.add(status + Integer.toString(weightKg));
+    }
+
+    @Override
+    public void onInvalidFrame(FrameDecoder decoder) {
+        invalidFrames++;
+        lastInvalid = decoder.lastFrameAsString();
+    }
+
+    static void feed(FrameDecoder decoder, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            decoder.accept((byte) text.charAt(i));
+        }
+    }
+}
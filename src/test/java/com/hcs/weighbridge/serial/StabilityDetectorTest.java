@@ -0,0 +1,183 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.model.StabilityConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StabilityDetectorTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long START = 5_000 * MS;
+
+    private static StabilityDetector detector(long windowMs, int toleranceKg, double maxSlope) {
+        StabilityConfig config = new StabilityConfig();
+        config.setWindowMs(windowMs);
+        config.setToleranceKg(toleranceKg);
+        config.setMaxSlopeKgPerSec(maxSlope);
+        return new StabilityDetector(config);
+    }
+
+    @Test
+    public void notStableUntilWindowIsCovered() {
+        StabilityDetector detector = detector(1000, 20, 10);
+
+        for (int i = 0; i < 10; i++) {
+            detector.onSample(10_000, START + i * 100 * MS);
+            assertFalse("stable after " + i * 100 + " ms", detector.isStable());
+        }
+        detector.onSample(10_000, START + 1000 * MS);
+
+        assertTrue(detector.isStable());
+    }
+
+    @Test
+    public void spikeLeavesWindowBeforeStable() {
+        StabilityDetector detector = detector(1000, 20, 10);
+        detector.onSample(12_000, START);
+        for (int i = 1; i <= 10; i++) {
+            detector.onSample(10_000, START + i * 100 * MS);
+        }
+
+        // The spike is still the sample at the window start.
+        assertFalse(detector.isStable());
+        assertEquals(2_000, detector.getRange());
+
+        detector.onSample(10_000, START + 1100 * MS);
+
+        assertTrue(detector.isStable());
+        assertEquals(0, detector.getRange());
+    }
+
+    @Test
+    public void steadyRampIsNotStable() {
+        StabilityDetector detector = detector(1000, 200, 10);
+
+        // 50 kg/s stays inside the 200 kg tolerance over one second but is too steep.
+        for (int i = 0; i <= 20; i++) {
+            detector.onSample(10_000 + i * 5, START + i * 100 * MS);
+        }
+
+        assertEquals(50, detector.getSlope(), 1e-6);
+        assertFalse(detector.isStable());
+    }
+
+    @Test
+    public void resetForgetsHistory() {
+        StabilityDetector detector = detector(1000, 20, 10);
+        for (int i = 0; i <= 10; i++) {
+            detector.onSample(10_000, START + i * 100 * MS);
+        }
+        assertTrue(detector.isStable());
+
+        detector.reset();
+
+        assertFalse(detector.isStable());
+        assertEquals(0, detector.getRange());
+        detector.onSample(10_000, START + 1200 * MS);
+        assertFalse(detector.isStable());
+    }
+
+    @Test
+    public void longWindowAtHighFrameRateBecomesStable() {
+        StabilityDetector detector = detector(6000, 20, 10);
+
+        // 6 s at 100 Hz is 601 samples, more than the old fixed 512 sample ring held.
+        for (int i = 0; i <= 600; i++) {
+            detector.onSample(10_000, START + i * 10 * MS);
+        }
+
+        assertTrue(detector.isStable());
+    }
+
+    @Test
+    public void ringIsSizedFromWindowAndClamped() {
+        assertEquals(512, StabilityDetector.capacityFor(2000));
+        assertEquals(2048, StabilityDetector.capacityFor(6000));
+        assertEquals(StabilityDetector.MAX_WINDOW_MS, StabilityDetector.clampWindowMs(600_000));
+        assertEquals(1, StabilityDetector.clampWindowMs(0));
+        assertEquals(1500, StabilityDetector.clampWindowMs(1500));
+    }
+
+    /**
+     * Feeds irregularly spaced random weights for a few minutes of stream time, so the
+     * monotonic queues, the window eviction, the capacity limit and the periodic rebase of the
+     * sums are all exercised, and compares range and slope with a brute-force recomputation.
+     */
+    @Test
+    public void rangeAndSlopeMatchBruteForce() {
+        long windowMs = 2000;
+        StabilityDetector detector = detector(windowMs, 20, 10);
+        Random random = new Random(42);
+        List<long[]> samples = new ArrayList<>();
+        long now = START;
+        int weight = 20_000;
+
+        for (int i = 0; i < 20_000; i++) {
+            // Mostly 1-40 ms apart, with bursts dense enough to fill the ring.
+            now += i % 5_000 < 1_000 ? MS : (1 + random.nextInt(40)) * MS;
+            weight += random.nextInt(201) - 100;
+            detector.onSample(weight, now);
+            samples.add(new long[]{weight, now});
+
+            int tail = windowTail(samples, now - windowMs * MS, detector.getCapacity());
+            assertEquals("range at sample " + i, bruteRange(samples, tail), detector.getRange());
+            assertEquals("slope at sample " + i, bruteSlope(samples, tail), detector.getSlope(), 1e-3);
+        }
+    }
+
+    /**
+     * Index of the oldest retained sample: the newest one at or before the window start,
+     * limited to the last {@code capacity} samples.
+     */
+    static int windowTail(List<long[]> samples, long windowStart, int capacity) {
+        int tail = 0;
+        for (int i = samples.size() - 2; i >= 0; i--) {
+            if (samples.get(i + 1)[1] <= windowStart) {
+                tail = i + 1;
+                break;
+            }
+        }
+        return Math.max(tail, samples.size() - capacity);
+    }
+
+    static int bruteRange(List<long[]> samples, int tail) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = tail; i < samples.size(); i++) {
+            min = Math.min(min, samples.get(i)[0]);
+            max = Math.max(max, samples.get(i)[0]);
+        }
+        return (int) (max - min);
+    }
+
+    private static double bruteSlope(List<long[]> samples, int tail) {
+        int n = samples.size() - tail;
+        if (n < 2) {
+            return 0;
+        }
+        long origin = samples.get(tail)[1];
+        double meanT = 0;
+        double meanW = 0;
+        for (int i = tail; i < samples.size(); i++) {
+            meanT += (samples.get(i)[1] - origin) / 1e9;
+            meanW += samples.get(i)[0];
+        }
+        meanT /= n;
+        meanW /= n;
+        double covariance = 0;
+        double variance = 0;
+        for (int i = tail; i < samples.size(); i++) {
+            double t = (samples.get(i)[1] - origin) / 1e9 - meanT;
+            covariance += t * (samples.get(i)[0] - meanW);
+            variance += t * t;
+        }
+        return variance <= 0 ? 0 : covariance / variance;
+    }
+}
@@ -0,0 +1,15 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Throughput of {@link StandardFrameDecoder} over a receive buffer of back-to-back frames.
+ */
+public final class StandardFrameDecoderBenchmark {
+
+    private StandardFrameDecoderBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        DecoderBenchmark.run("STANDARD", new StandardFrameDecoder(new DecoderBenchmark.CountingListener()),
+                "P+012345\r");
+    }
+}
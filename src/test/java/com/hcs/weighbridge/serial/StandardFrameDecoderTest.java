@@ -0,0 +1,88 @@
+package com.hcs.weighbridge.serial;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class StandardFrameDecoderTest {
+
+    private RecordingFrameListener listener;
+    private StandardFrameDecoder decoder;
+
+    @Before
+    public void setUp() {
+        listener = new RecordingFrameListener();
+        decoder = new StandardFrameDecoder(listener);
+    }
+
+    private void feed(String text) {
+        RecordingFrameListener.feed(decoder, text);
+    }
+
+    @Test
+    public void decodesStatusAndWeight() {
+        feed("P+12340\rM+00120\r");
+
+        assertEquals(Arrays.asList("P12340", "M120"), listener.frames);
+        assertEquals(0, listener.invalidFrames);
+    }
+
+    @Test
+    public void appliesSign() {
+        feed("P-00040\r");
+
+        assertEquals(Collections.singletonList("P-40"), listener.frames);
+    }
+
+    @Test
+    public void scalesAndRoundsDecimalsToFiveKg() {
+        feed("P+1234.4\rP+1232.4\rP+1232.5\rP+0.004\r");
+
+        assertEquals(Arrays.asList("P1235", "P1230", "P1235", "P0"), listener.frames);
+    }
+
+    @Test
+    public void toleratesSpacesAndControlCharacters() {
+        feed("\n  P+500  \r\u0002P+505\u0003\r");
+
+        assertEquals(Arrays.asList("P500", "P505"), listener.frames);
+        assertEquals(0, listener.invalidFrames);
+    }
+
+    @Test
+    public void rejectsMalformedFramesAndResynchronises() {
+        feed("p+100\rPX100\rP+1.2.3\rP+\rP+12 3\rP+100\r");
+
+        assertEquals(Collections.singletonList("P100"), listener.frames);
+        assertEquals(5, listener.invalidFrames);
+    }
+
+    @Test
+    public void rejectsMoreThanNineIntegerDigits() {
+        feed("P+1234567890\rP+000000000123456785\r");
+
+        assertEquals(Collections.singletonList("P123456785"), listener.frames);
+        assertEquals(1, listener.invalidFrames);
+    }
+
+    @Test
+    public void ignoresEmptyFrames() {
+        feed("\r\r\n\r");
+
+        assertEquals(0, listener.frames.size());
+        assertEquals(0, listener.invalidFrames);
+    }
+
+    @Test
+    public void countsFrames() {
+        feed("P+100\rgarbage\rP+200\r");
+
+        assertEquals(2, decoder.getValidFrames());
+        assertEquals(1, decoder.getInvalidFrames());
+        assertEquals("garbage", listener.lastInvalid);
+    }
+}
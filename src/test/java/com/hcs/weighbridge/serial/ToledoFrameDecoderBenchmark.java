@@ -0,0 +1,19 @@
+package com.hcs.weighbridge.serial;
+
+/**
+ * Throughput of {@link ToledoFrameDecoder}, with and without checksum, over a receive buffer
+ * of back-to-back frames.
+ */
+public final class ToledoFrameDecoderBenchmark {
+
+    private ToledoFrameDecoderBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        String frame = ToledoFrameDecoderTest.frame(0x22, 0x30, "012345", "000000");
+        DecoderBenchmark.run("TOLEDO", new ToledoFrameDecoder(new DecoderBenchmark.CountingListener(), false),
+                frame);
+        DecoderBenchmark.run("TOLEDO_CS", new ToledoFrameDecoder(new DecoderBenchmark.CountingListener(), true),
+                ToledoFrameDecoderTest.withChecksum(frame));
+    }
+}
@@ -0,0 +1,166 @@
+package com.hcs.weighbridge.serial;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ToledoFrameDecoderTest {
+
+    private static final char STX = 0x02;
+
+    /** Status word A with no decimal point. */
+    private static final int SWA_UNITS = 0x22;
+    /** Status word B values for a kg indicator (bit 4 set). */
+    private static final int SWB_STABLE = 0x30;
+    private static final int SWB_NEGATIVE = 0x32;
+    private static final int SWB_OVER_RANGE = 0x34;
+    private static final int SWB_MOTION = 0x38;
+    /** Status word B values for a lb indicator (bit 4 clear). */
+    private static final int SWB_POUNDS = 0x20;
+    private static final int SWB_POUNDS_NEGATIVE = 0x22;
+    /** Status word C selecting the primary lb/kg units. */
+    private static final int SWC = 0x20;
+    private static final int SWC_GRAMS = 0x21;
+    private static final int SWC_METRIC_TONS = 0x22;
+
+    private final RecordingFrameListener listener = new RecordingFrameListener();
+
+    static String frame(int swa, int swb, String weight, String tare) {
+        return frame(swa, swb, SWC, weight, tare);
+    }
+
+    static String frame(int swa, int swb, int swc, String weight, String tare) {
+        return "" + STX + (char) swa + (char) swb + (char) swc + weight + tare + "\r";
+    }
+
+    static String withChecksum(String frame) {
+        int sum = 0;
+        for (int i = 0; i < frame.length(); i++) {
+            sum += frame.charAt(i);
+        }
+        return frame + (char) (-sum & 0x7F);
+    }
+
+    private ToledoFrameDecoder decoder(boolean checksum) {
+        return new ToledoFrameDecoder(listener, checksum);
+    }
+
+    @Test
+    public void decodesStableAndMotionFrames() {
+        RecordingFrameListener.feed(decoder(false),
+                frame(SWA_UNITS, SWB_STABLE, "012340", "000000")
+                        + frame(SWA_UNITS, SWB_MOTION, "000125", "000000"));
+
+        assertEquals(Arrays.asList("P12340", "M125"), listener.frames);
+        assertEquals(0, listener.invalidFrames);
+    }
+
+    @Test
+    public void appliesSignFromStatusWordB() {
+        RecordingFrameListener.feed(decoder(false), frame(SWA_UNITS, SWB_NEGATIVE, "000040", "000000"));
+
+        assertEquals(Collections.singletonList("P-40"), listener.frames);
+    }
+
+    @Test
+    public void scalesByDecimalPointCode() {
+        RecordingFrameListener.feed(decoder(false),
+                frame(0x20, SWB_STABLE, "000123", "000000")       // x100
+                        + frame(0x21, SWB_STABLE, "001234", "000000")    // x10
+                        + frame(0x23, SWB_STABLE, "123456", "000000")    // 12345.6
+                        + frame(0x24, SWB_STABLE, "123456", "000000"));  // 1234.56
+
+        assertEquals(Arrays.asList("P12300", "P12340", "P12345", "P1235"), listener.frames);
+    }
+
+    @Test
+    public void readsBlanksAsLeadingZeros() {
+        RecordingFrameListener.feed(decoder(false), frame(SWA_UNITS, SWB_STABLE, "   500", "      "));
+
+        assertEquals(Collections.singletonList("P500"), listener.frames);
+    }
+
+    @Test
+    public void rejectsOverRange() {
+        RecordingFrameListener.feed(decoder(false), frame(SWA_UNITS, SWB_OVER_RANGE, "999999", "000000"));
+
+        assertEquals(0, listener.frames.size());
+        assertEquals(1, listener.invalidFrames);
+    }
+
+    @Test
+    public void convertsPoundsToKg() {
+        RecordingFrameListener.feed(decoder(false),
+                frame(SWA_UNITS, SWB_POUNDS, "022046", "000000")
+                        + frame(SWA_UNITS, SWB_POUNDS, "001000", "000000")
+                        + frame(SWA_UNITS, SWB_POUNDS_NEGATIVE, "000100", "000000")
+                        + frame(0x23, SWB_POUNDS, "220462", "000000"));
+
+        // 9999.9 kg, 453.6 kg, -45.4 kg, 9999.9 kg
+        assertEquals(Arrays.asList("P10000", "P455", "P-45", "P10000"), listener.frames);
+    }
+
+    @Test
+    public void rejectsAlternateUnits() {
+        RecordingFrameListener.feed(decoder(false),
+                frame(SWA_UNITS, SWB_STABLE, SWC_GRAMS, "012340", "000000")
+                        + frame(SWA_UNITS, SWB_STABLE, SWC_METRIC_TONS, "000012", "000000")
+                        + frame(SWA_UNITS, SWB_STABLE, "012340", "000000"));
+
+        assertEquals(Collections.singletonList("P12340"), listener.frames);
+        assertEquals(2, listener.invalidFrames);
+    }
+
+    @Test
+    public void acceptsValidChecksum() {
+        RecordingFrameListener.feed(decoder(true), withChecksum(frame(SWA_UNITS, SWB_STABLE, "012340", "000000")));
+
+        assertEquals(Collections.singletonList("P12340"), listener.frames);
+        assertEquals(0, listener.invalidFrames);
+    }
+
+    @Test
+    public void rejectsBadChecksum() {
+        String good = withChecksum(frame(SWA_UNITS, SWB_STABLE, "012340", "000000"));
+        String bad = good.substring(0, good.length() - 1) + (char) ((good.charAt(good.length() - 1) + 1) & 0x7F);
+        RecordingFrameListener.feed(decoder(true), bad);
+
+        assertEquals(0, listener.frames.size());
+        assertEquals(1, listener.invalidFrames);
+    }
+
+    @Test
+    public void acceptsChecksumEqualToStx() {
+        // The tare digits do not affect the weight, so they can steer the checksum.
+        String frame = null;
+        for (int tare = 999_999; tare >= 0 && frame == null; tare--) {
+            String candidate = withChecksum(frame(SWA_UNITS, SWB_STABLE, "012340", String.format("%06d", tare)));
+            if (candidate.charAt(candidate.length() - 1) == STX) {
+                frame = candidate;
+            }
+        }
+        assertNotNull(frame);
+        RecordingFrameListener.feed(decoder(true), frame + frame);
+
+        assertEquals(Arrays.asList("P12340", "P12340"), listener.frames);
+        assertEquals(0, listener.invalidFrames);
+    }
+
+    @Test
+    public void resynchronisesOnNextStx() {
+        String good = frame(SWA_UNITS, SWB_STABLE, "012340", "000000");
+        RecordingFrameListener.feed(decoder(false),
+                "noise" + good.substring(0, 7) + good            // truncated by a new STX
+                        + frame(0x12, SWB_STABLE, "012340", "000000") // status word A lacks bit 5
+                        + frame(SWA_UNITS, SWB_STABLE, "01x340", "000000")
+                        + good.replace('\r', '\n')
+                        + good);
+
+        assertEquals(Arrays.asList("P12340", "P12340"), listener.frames);
+        assertEquals(4, listener.invalidFrames);
+    }
+}
@@ -0,0 +1,206 @@
+package com.hcs.weighbridge.serial;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WeightBusTest {
+
+    private static final int STRESS_SAMPLES = 2_000_000;
+
+    private static char statusFor(long sequence) {
+        return (char) ('A' + sequence % 26);
+    }
+
+    private static long timeFor(long sequence) {
+        return sequence * 3 + 1;
+    }
+
+    private static void publish(WeightBus bus, long sequence) {
+        bus.publish((int) sequence, statusFor(sequence), timeFor(sequence));
+    }
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new WeightBus(5).getCapacity());
+        assertEquals(8, new WeightBus(8).getCapacity());
+        assertEquals(16, new WeightBus(9).getCapacity());
+    }
+
+    @Test
+    public void packRoundTripsNegativeWeights() {
+        long sample = WeightBus.pack(-1250, 'M');
+
+        assertEquals(-1250, WeightBus.weightOf(sample));
+        assertEquals('M', WeightBus.statusOf(sample));
+    }
+
+    @Test
+    public void subscriberSeesOnlySamplesPublishedAfterSubscribing() {
+        WeightBus bus = new WeightBus(8);
+        publish(bus, 0);
+        WeightBus.Subscriber subscriber = bus.subscribe("test");
+        publish(bus, 1);
+        publish(bus, 2);
+
+        List<Long> seen = new ArrayList<>();
+        int delivered = subscriber.poll((sequence, weightKg, status, receivedNanos) -> seen.add(sequence), 10);
+
+        assertEquals(2, delivered);
+        assertEquals(1L, (long) seen.get(0));
+        assertEquals(2L, (long) seen.get(1));
+        assertEquals(0, subscriber.getLag());
+        assertEquals(0, subscriber.getDropped());
+    }
+
+    @Test
+    public void lappedSubscriberSkipsAheadAndCountsDropped() {
+        WeightBus bus = new WeightBus(8);
+        WeightBus.Subscriber subscriber = bus.subscribe("slow");
+        for (long sequence = 0; sequence < 20; sequence++) {
+            publish(bus, sequence);
+        }
+        assertEquals(20, subscriber.getLag());
+
+        List<Long> seen = new ArrayList<>();
+        subscriber.poll((sequence, weightKg, status, receivedNanos) -> seen.add(sequence), Integer.MAX_VALUE);
+
+        assertEquals(12, subscriber.getDropped());
+        assertEquals(8, seen.size());
+        assertEquals(12L, (long) seen.get(0));
+        assertEquals(19L, (long) seen.get(7));
+        assertEquals(0, subscriber.getLag());
+    }
+
+    @Test
+    public void pollLatestDeliversOnlyNewestSample() {
+        WeightBus bus = new WeightBus(8);
+        WeightBus.Subscriber subscriber = bus.subscribe("display");
+        for (long sequence = 0; sequence < 5; sequence++) {
+            publish(bus, sequence);
+        }
+
+        long[] seen = {-1};
+        assertTrue(subscriber.pollLatest((sequence, weightKg, status, receivedNanos) -> seen[0] = sequence));
+        assertEquals(4, seen[0]);
+        assertFalse(subscriber.pollLatest((sequence, weightKg, status, receivedNanos) -> seen[0] = -2));
+        assertEquals(4, seen[0]);
+    }
+
+    @Test
+    public void closeRemovesSubscriber() {
+        WeightBus bus = new WeightBus(8);
+        WeightBus.Subscriber subscriber = bus.subscribe("gone");
+
+        subscriber.close();
+
+        assertTrue(bus.getSubscribers().isEmpty());
+    }
+
+    /**
+     * One writer publishes flat out into a small ring while two readers race it. Every
+     * delivered sample must be whole (its weight, status and time all belong to the same
+     * sequence), sequences must only move forward, and delivered plus dropped must account
+     * for every published sample. The polling reader is held inside its handler until the
+     * writer is several rings ahead, so lapping is guaranteed rather than left to timing.
+     */
+    @Test
+    public void concurrentReadersNeverSeeTornSamples() throws Exception {
+        WeightBus bus = new WeightBus(16);
+        WeightBus.Subscriber polling = bus.subscribe("polling");
+        WeightBus.Subscriber latest = bus.subscribe("latest");
+        long holdAt = 100;
+        long releaseAt = holdAt + bus.getCapacity() * 4L;
+        CountDownLatch lapped = new CountDownLatch(1);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (long sequence = 0; sequence < STRESS_SAMPLES; sequence++) {
+                publish(bus, sequence);
+                if (sequence == releaseAt) {
+                    lapped.countDown();
+                }
+            }
+        }, "writer");
+
+        long[] pollingCounts = new long[2];
+        Thread pollingReader = new Thread(() -> {
+            long[] last = {-1};
+            WeightBus.SampleHandler check = (sequence, weightKg, status, receivedNanos) -> {
+                verify(failure, "polling", last[0], sequence, weightKg, status, receivedNanos);
+                last[0] = sequence;
+                pollingCounts[0]++;
+                if (sequence == holdAt) {
+                    awaitQuietly(lapped);
+                }
+            };
+            while (bus.getCursor() < STRESS_SAMPLES - 1 || polling.getLag() > 0) {
+                polling.poll(check, 64);
+            }
+            pollingCounts[1] = last[0];
+        }, "polling-reader");
+
+        long[] latestCount = new long[1];
+        Thread latestReader = new Thread(() -> {
+            long[] last = {-1};
+            WeightBus.SampleHandler check = (sequence, weightKg, status, receivedNanos) -> {
+                verify(failure, "latest", last[0], sequence, weightKg, status, receivedNanos);
+                last[0] = sequence;
+                latestCount[0]++;
+            };
+            while (last[0] < STRESS_SAMPLES - 1) {
+                latest.pollLatest(check);
+            }
+        }, "latest-reader");
+
+        pollingReader.start();
+        latestReader.start();
+        writer.start();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        pollingReader.join(TimeUnit.SECONDS.toMillis(30));
+        latestReader.join(TimeUnit.SECONDS.toMillis(30));
+
+        assertFalse("writer still running", writer.isAlive());
+        assertFalse("polling reader still running", pollingReader.isAlive());
+        assertFalse("latest reader still running", latestReader.isAlive());
+        assertNull(failure.get());
+
+        assertTrue("polling reader was never lapped", polling.getDropped() > 0);
+        assertEquals(STRESS_SAMPLES, pollingCounts[0] + polling.getDropped());
+        assertEquals(STRESS_SAMPLES - 1, pollingCounts[1]);
+        assertTrue(latestCount[0] > 0);
+        assertEquals(0, latest.getLag());
+    }
+
+    private static void verify(AtomicReference<String> failure, String reader, long previous,
+                               long sequence, int weightKg, char status, long receivedNanos) {
+        String error = null;
+        if (sequence <= previous) {
+            error = reader + " went back from " + previous + " to " + sequence;
+        } else if (weightKg != (int) sequence || status != statusFor(sequence)
+                || receivedNanos != timeFor(sequence)) {
+            error = reader + " read a torn sample at " + sequence + ": " + weightKg + " " + status
+                    + " " + receivedNanos;
+        }
+        if (error != null) {
+            failure.compareAndSet(null, error);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.hcs.weighbridge.serial;
+
+import com.hcs.weighbridge.constants.FilterMode;
+import com.hcs.weighbridge.model.FilterConfig;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class WeightFiltersTest {
+
+    private static int[] applyAll(WeightFilter filter, int... samples) {
+        int[] out = new int[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            out[i] = filter.apply(samples[i]);
+        }
+        return out;
+    }
+
+    private static FilterConfig config(FilterMode mode, int medianWindow, double emaAlpha) {
+        FilterConfig cfg = new FilterConfig();
+        cfg.setMode(mode);
+        cfg.setMedianWindow(medianWindow);
+        cfg.setEmaAlpha(emaAlpha);
+        return cfg;
+    }
+
+    @Test
+    public void medianRejectsSingleSpike() {
+        MedianFilter filter = new MedianFilter(3);
+
+        int[] out = applyAll(filter, 1000, 1000, 9000, 1000);
+
+        assertEquals(1000, out[2]);
+        assertEquals(1000, out[3]);
+    }
+
+    @Test
+    public void medianEvictsOneOfSeveralEqualValues() {
+        MedianFilter filter = new MedianFilter(3);
+
+        // Window [500, 500, 500] -> [500, 500, 700] -> [500, 700, 700] -> [700, 700, 700]
+        int[] out = applyAll(filter, 500, 500, 500, 700, 700, 700, 500);
+
+        assertEquals(500, out[2]);
+        assertEquals(500, out[3]);
+        assertEquals(700, out[4]);
+        assertEquals(700, out[5]);
+        // [700, 700, 500]: only one 700 left the window when 500 arrived.
+        assertEquals(700, out[6]);
+    }
+
+    @Test
+    public void medianEvictsDuplicatesInArrivalOrder() {
+        MedianFilter filter = new MedianFilter(5);
+
+        int[] out = applyAll(filter, 100, 200, 200, 200, 300, 300, 300, 300, 100);
+
+        // Window after the last sample: [300, 300, 300, 300, 100]
+        assertEquals(300, out[8]);
+        // Window [200, 200, 300, 300, 300]
+        assertEquals(300, out[6]);
+        // Window [200, 200, 200, 300, 300]
+        assertEquals(200, out[5]);
+    }
+
+    @Test
+    public void medianRoundsEvenWindowUpAndForgetsOnReset() {
+        MedianFilter filter = new MedianFilter(4);
+        applyAll(filter, 100, 100, 100, 100, 100);
+
+        filter.reset();
+
+        assertEquals(900, filter.apply(900));
+    }
+
+    @Test
+    public void emaSeedsFromFirstSampleAndFollows() {
+        EmaFilter filter = new EmaFilter(0.5);
+
+        int[] out = applyAll(filter, 1000, 2000, 2000);
+
+        assertEquals(1000, out[0]);
+        assertEquals(1500, out[1]);
+        assertEquals(1750, out[2]);
+        filter.reset();
+        assertEquals(3000, filter.apply(3000));
+    }
+
+    @Test
+    public void createReturnsNullWhenOff() {
+        assertNull(WeightFilters.create(config(FilterMode.NONE, 5, 0.3)));
+    }
+
+    @Test
+    public void chainRunsMedianBeforeEma() {
+        WeightFilter chain = WeightFilters.create(config(FilterMode.MEDIAN_EMA, 3, 0.5));
+
+        // The spike never reaches the average: the median hands it 1000 each time.
+        int[] out = applyAll(chain, 1000, 1000, 9000, 1000, 1000);
+        assertEquals(1000, out[2]);
+        assertEquals(1000, out[4]);
+
+        // A real step is passed on by the median after two samples and then averaged.
+        out = applyAll(chain, 2000, 2000, 2000);
+        assertEquals(1000, out[0]);
+        assertEquals(1500, out[1]);
+        assertEquals(1750, out[2]);
+    }
+
+    @Test
+    public void chainResetsBothStages() {
+        WeightFilter chain = WeightFilters.create(config(FilterMode.MEDIAN_EMA, 3, 0.1));
+        applyAll(chain, 1000, 1000, 1000, 1000);
+
+        chain.reset();
+
+        assertEquals(5000, chain.apply(5000));
+        assertEquals(5000, chain.apply(5000));
+    }
+}